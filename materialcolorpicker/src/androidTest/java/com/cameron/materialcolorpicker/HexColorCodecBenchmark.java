@@ -0,0 +1,109 @@
+package com.cameron.materialcolorpicker;
+
+import android.graphics.Color;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the batch conversions of {@link HexColorCodec} with converting every color on its
+ * own with {@code String.format} and {@code Color.parseColor}. The timings are written to
+ * logcat (tag {@value #TAG}), only the results of the conversions are asserted. The parser
+ * and the formatter themselves are tested by HexColorCodecTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HexColorCodecBenchmark {
+
+    private static final String TAG = "HexColorCodecBenchmark";
+    private static final int COLORS = 20000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 20;
+
+    private static int[] randomColors() {
+        final Random random = new Random(42);
+        final int[] colors = new int[COLORS];
+        for (int i = 0; i < colors.length; i++) colors[i] = random.nextInt();
+        return colors;
+    }
+
+    private static String formatPerColor(int[] colors) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < colors.length; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(String.format("#%08X", colors[i]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The codes are split beforehand, so only the parsing itself is measured.
+     */
+    private static int[] parsePerColor(String[] codes) {
+        final int[] colors = new int[codes.length];
+        for (int i = 0; i < codes.length; i++) colors[i] = Color.parseColor(codes[i]);
+        return colors;
+    }
+
+    private static void log(String name, long perColorNanos, long batchNanos) {
+        Log.i(TAG, String.format("%s %d colors: per color %.2f ms, batch %.2f ms (%.1fx)",
+                name, COLORS, perColorNanos / 1e6, batchNanos / 1e6,
+                (double) perColorNanos / batchNanos));
+    }
+
+    @Test
+    public void format() {
+        final int[] colors = randomColors();
+        final String expected = formatPerColor(colors);
+        assertEquals(expected, HexColorCodec.formatColors(colors, true, ',', new StringBuilder()).toString());
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            formatPerColor(colors);
+            HexColorCodec.formatColors(colors, true, ',', new StringBuilder());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) formatPerColor(colors);
+        final long perColor = (System.nanoTime() - start) / RUNS;
+
+        final char[] out = new char[HexColorCodec.formattedLength(colors.length, true)];
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            HexColorCodec.formatColors(colors, 0, colors.length, true, ',', out, 0);
+        }
+        final long batch = (System.nanoTime() - start) / RUNS;
+
+        assertEquals(expected, new String(out));
+        log("format", perColor, batch);
+    }
+
+    @Test
+    public void parse() throws ParseException {
+        final int[] colors = randomColors();
+        final String input = formatPerColor(colors);
+        final String[] codes = input.split(",");
+        assertArrayEquals(colors, parsePerColor(codes));
+        assertArrayEquals(colors, HexColorCodec.parseColors(input, ','));
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            parsePerColor(codes);
+            HexColorCodec.parseColors(input, ',');
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) parsePerColor(codes);
+        final long perColor = (System.nanoTime() - start) / RUNS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) HexColorCodec.parseColors(input, ',');
+        final long batch = (System.nanoTime() - start) / RUNS;
+
+        log("parse", perColor, batch);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cameron.materialcolorpicker;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Shader;
+import android.graphics.drawable.Drawable;
+import android.support.v4.content.ContextCompat;
+
+/**
+ * Draws the checkerboard pattern that is shown behind translucent colors, with a single
+ * tiled {@link BitmapShader} shared by every ColorPicker.
+ */
+class CheckerboardDrawable extends Drawable {
+
+    private static BitmapShader cachedShader;
+    private static int cachedCellSize;
+
+    private final Paint paint;
+
+    CheckerboardDrawable(Context context) {
+        paint = new Paint();
+        paint.setShader(getShader(context));
+    }
+
+    /**
+     * Returns the shared checkerboard shader, creating it on first use. Must be called
+     * from the UI thread.
+     */
+    static Shader getShader(Context context) {
+        final int cellSize = context.getResources()
+                .getDimensionPixelSize(R.dimen.materialcolorpicker__checker_size);
+        // The cell size only changes with the density, so in practice this is created once
+        if (cachedShader == null || cachedCellSize != cellSize) {
+            final Bitmap tile = Bitmap.createBitmap(cellSize * 2, cellSize * 2, Bitmap.Config.RGB_565);
+            final Canvas canvas = new Canvas(tile);
+            final Paint cellPaint = new Paint();
+            canvas.drawColor(ContextCompat.getColor(context, R.color.materialcolorpicker__white));
+            cellPaint.setColor(ContextCompat.getColor(context, R.color.materialcolorpicker__lightgrey));
+            canvas.drawRect(0, 0, cellSize, cellSize, cellPaint);
+            canvas.drawRect(cellSize, cellSize, cellSize * 2, cellSize * 2, cellPaint);
+
+            cachedShader = new BitmapShader(tile, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+            cachedCellSize = cellSize;
+        }
+        return cachedShader;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        canvas.drawRect(getBounds(), paint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        // The tile itself has no transparent pixels
+        return paint.getAlpha() < 255 || paint.getColorFilter() != null
+                ? PixelFormat.TRANSLUCENT : PixelFormat.OPAQUE;
+    }
+}
@@ -5,6 +5,8 @@ import android.support.annotation.IntRange;
 
 final class ColorFormatHelper {
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
      * Checks whether the specified value is between (including bounds) 0 and 255
      *
@@ -33,6 +35,31 @@ final class ColorFormatHelper {
         }
     }
 
+    /**
+     * Writes the lowest {@code digits} nibbles of a value as uppercase HEX digits.
+     *
+     * @param value  The value to write
+     * @param digits The number of HEX digits to write
+     * @param out    Receives the digits
+     * @param offset Position of the first digit in {@code out}
+     */
+    static void writeHex(int value, int digits, char[] out, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = HEX_DIGITS[value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * @return The value of an ASCII HEX digit, or -1 if the character isn't one
+     */
+    static int hexDigitValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+
     /**
      * Formats individual RGB values to be output as a HEX string.
      * <p>
@@ -48,11 +75,11 @@ final class ColorFormatHelper {
             @IntRange(from = 0, to = 255) int green,
             @IntRange(from = 0, to = 255) int blue) {
 
-        return String.format("%02X%02X%02X",
-                assertColorValueInRange(red),
-                assertColorValueInRange(green),
-                assertColorValueInRange(blue)
-        );
+        final char[] hex = new char[6];
+        writeHex((assertColorValueInRange(red) << 16)
+                | (assertColorValueInRange(green) << 8)
+                | assertColorValueInRange(blue), 6, hex, 0);
+        return new String(hex);
     }
 
     /**
@@ -73,11 +100,11 @@ final class ColorFormatHelper {
             @IntRange(from = 0, to = 255) int green,
             @IntRange(from = 0, to = 255) int blue) {
 
-        return String.format("%02X%02X%02X%02X",
-                assertColorValueInRange(alpha),
-                assertColorValueInRange(red),
-                assertColorValueInRange(green),
-                assertColorValueInRange(blue)
-        );
+        final char[] hex = new char[8];
+        writeHex((assertColorValueInRange(alpha) << 24)
+                | (assertColorValueInRange(red) << 16)
+                | (assertColorValueInRange(green) << 8)
+                | assertColorValueInRange(blue), 8, hex, 0);
+        return new String(hex);
     }
 }
@@ -0,0 +1,151 @@
+package com.cameron.materialcolorpicker;
+
+import android.support.annotation.ColorInt;
+
+import java.util.Arrays;
+
+/**
+ * Undo/redo history of the picked colors, kept in a fixed-size ring buffer of packed ints.
+ * Once the buffer is full, the oldest entry is overwritten, so the memory used never grows.
+ * <p>
+ * In wide gamut mode, every entry also keeps the packed wide channels in a parallel ring of
+ * longs, so undo restores the full precision rather than the 8 bit sRGB color.
+ */
+final class ColorHistory {
+
+    /**
+     * Stored as the channels of entries that only have an 8 bit color.
+     */
+    static final long NO_CHANNELS = -1L;
+
+    private final int[] entries;
+    private final long[] channels;
+    // Index of the oldest entry in the ring
+    private int start;
+    private int size;
+    // Position of the current entry, relative to the oldest one
+    private int cursor;
+
+    ColorHistory(int capacity) {
+        entries = new int[capacity];
+        channels = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int cursor() {
+        return cursor;
+    }
+
+    /**
+     * @param index Position relative to the oldest entry
+     */
+    @ColorInt
+    int get(int index) {
+        return entries[(start + index) % entries.length];
+    }
+
+    /**
+     * @param index Position relative to the oldest entry
+     * @return The packed wide channels of the entry, or {@link #NO_CHANNELS}
+     */
+    long getChannels(int index) {
+        return channels[(start + index) % channels.length];
+    }
+
+    @ColorInt
+    int current() {
+        return get(cursor);
+    }
+
+    long currentChannels() {
+        return getChannels(cursor);
+    }
+
+    /**
+     * Records a new color after the current one, dropping everything that could have been
+     * redone. Pushing the current color again does nothing.
+     */
+    void push(@ColorInt int color) {
+        push(color, NO_CHANNELS);
+    }
+
+    /**
+     * Records a new color along with its packed wide channels.
+     *
+     * @see #push(int)
+     */
+    void push(@ColorInt int color, long wideChannels) {
+        if (size > 0 && current() == color && currentChannels() == wideChannels) return;
+
+        size = size == 0 ? 0 : cursor + 1;
+        if (size == entries.length) {
+            start = (start + 1) % entries.length;
+            size--;
+        }
+        entries[(start + size) % entries.length] = color;
+        channels[(start + size) % channels.length] = wideChannels;
+        cursor = size;
+        size++;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    void clear() {
+        start = 0;
+        size = 0;
+        cursor = 0;
+    }
+
+    boolean canUndo() {
+        return cursor > 0;
+    }
+
+    boolean canRedo() {
+        return cursor < size - 1;
+    }
+
+    /**
+     * @return The color before the current one, which becomes the current color
+     */
+    @ColorInt
+    int undo() {
+        return get(--cursor);
+    }
+
+    /**
+     * @return The color after the current one, which becomes the current color
+     */
+    @ColorInt
+    int redo() {
+        return get(++cursor);
+    }
+
+    /**
+     * Replaces the history with {@code count} colors (oldest first) read from {@code source}.
+     * If there are more colors than fit in the buffer, only the newest are kept.
+     */
+    void restore(int[] source, int offset, int count, int cursor) {
+        final int skipped = Math.max(0, count - entries.length);
+        size = count - skipped;
+        start = 0;
+        System.arraycopy(source, offset + skipped, entries, 0, size);
+        Arrays.fill(channels, NO_CHANNELS);
+        this.cursor = Math.max(0, Math.min(size - 1, cursor - skipped));
+    }
+
+    /**
+     * Restores the wide channels of the {@code count} colors passed to the preceding
+     * {@link #restore}, stored as two ints (high and low half) per entry, oldest first.
+     */
+    void restoreChannels(int[] source, int offset, int count) {
+        final int skipped = Math.max(0, count - entries.length);
+        for (int i = 0; i < size; i++) {
+            final int position = offset + (skipped + i) * 2;
+            channels[i] = ((long) source[position] << 32) | (source[position + 1] & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.cameron.materialcolorpicker;
+
+import android.support.annotation.ColorInt;
+
+/**
+ * Color computations used for the live previews of the dialog. Everything here works on
+ * packed ARGB ints and writes into arrays supplied by the caller, so nothing is allocated
+ * while the user is dragging a SeekBar.
+ */
+final class ColorMath {
+
+    /**
+     * Hue offsets (in degrees) of the harmonies, in the order they are written by
+     * {@link #harmonies(int, int[])}: complementary, analogous (2), triadic (2), tetradic (3).
+     */
+    static final int[] HARMONY_OFFSETS = {180, -30, 30, 120, 240, 90, 180, 270};
+
+    /**
+     * Number of colors in every harmony group, in the same order as {@link #HARMONY_OFFSETS}.
+     */
+    static final int[] HARMONY_GROUPS = {1, 2, 2, 3};
+
+    /**
+     * Linear light value (0 - 1) of every 8 bit sRGB channel value.
+     */
+    static final float[] SRGB_TO_LINEAR = new float[256];
+
+    /*
+     * Color vision deficiency simulation matrices for linear RGB (row major), from
+     * Machado, Oliveira and Fernandes, "A Physiologically-based Model for Simulation
+     * of Color Vision Deficiency" (2009), at full severity.
+     */
+    static final float[] PROTANOPIA = {
+            0.152286f, 1.052583f, -0.204868f,
+            0.114503f, 0.786281f, 0.099216f,
+            -0.003882f, -0.048116f, 1.051998f
+    };
+    static final float[] DEUTERANOPIA = {
+            0.367322f, 0.860646f, -0.227968f,
+            0.280085f, 0.672501f, 0.047413f,
+            -0.011820f, 0.042940f, 0.968881f
+    };
+    static final float[] TRITANOPIA = {
+            1.255528f, -0.076749f, -0.178779f,
+            -0.078411f, 0.930809f, 0.147602f,
+            0.004733f, 0.691367f, 0.303900f
+    };
+
+    /**
+     * The simulation matrices in the order they are shown in the dialog.
+     */
+    static final float[][] DEFICIENCIES = {PROTANOPIA, DEUTERANOPIA, TRITANOPIA};
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            final double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+        }
+    }
+
+    private ColorMath() {
+    }
+
+    /**
+     * Computes all harmonies of a color (see {@link #HARMONY_OFFSETS}). The hue of the
+     * color is only computed once for all of them.
+     *
+     * @param color The color to compute the harmonies of
+     * @param out   Receives the harmonies, must hold at least {@code HARMONY_OFFSETS.length} colors
+     */
+    static void harmonies(@ColorInt int color, @ColorInt int[] out) {
+        final int r = (color >> 16) & 0xFF;
+        final int g = (color >> 8) & 0xFF;
+        final int b = color & 0xFF;
+        final int max = Math.max(r, Math.max(g, b));
+        final int min = Math.min(r, Math.min(g, b));
+        if (max == min) {
+            for (int i = 0; i < HARMONY_OFFSETS.length; i++) out[i] = color;
+            return;
+        }
+        final float hue = hue(r, g, b, max, min);
+        for (int i = 0; i < HARMONY_OFFSETS.length; i++) {
+            out[i] = fromHue(color & 0xFF000000, hue + HARMONY_OFFSETS[i], max, min);
+        }
+    }
+
+    /**
+     * Simulates how a color looks with a color vision deficiency.
+     *
+     * @param color  The color to simulate
+     * @param matrix One of {@link #PROTANOPIA}, {@link #DEUTERANOPIA} or {@link #TRITANOPIA}
+     * @return The simulated color, with the alpha of the original color
+     */
+    @ColorInt
+    static int simulate(@ColorInt int color, float[] matrix) {
+        final float r = SRGB_TO_LINEAR[(color >> 16) & 0xFF];
+        final float g = SRGB_TO_LINEAR[(color >> 8) & 0xFF];
+        final float b = SRGB_TO_LINEAR[color & 0xFF];
+        return (color & 0xFF000000)
+                | (linearToSrgb(matrix[0] * r + matrix[1] * g + matrix[2] * b) << 16)
+                | (linearToSrgb(matrix[3] * r + matrix[4] * g + matrix[5] * b) << 8)
+                | linearToSrgb(matrix[6] * r + matrix[7] * g + matrix[8] * b);
+    }
+
+    /**
+     * Converts a linear light value back to the closest 8 bit sRGB channel value by
+     * searching {@link #SRGB_TO_LINEAR}, which avoids a {@code pow} per channel.
+     */
+    static int linearToSrgb(float linear) {
+        if (linear <= 0f) return 0;
+        if (linear >= 1f) return 255;
+        int low = 0;
+        int high = 255;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (SRGB_TO_LINEAR[mid] < linear) low = mid + 1;
+            else high = mid;
+        }
+        // low is the first value that isn't darker, its predecessor may be closer
+        return linear - SRGB_TO_LINEAR[low - 1] < SRGB_TO_LINEAR[low] - linear ? low - 1 : low;
+    }
+
+    /**
+     * @return The HSV hue of the color in degrees (0 - 360)
+     */
+    private static float hue(int r, int g, int b, int max, int min) {
+        final float delta = max - min;
+        final float hue;
+        if (max == r) hue = (g - b) / delta;
+        else if (max == g) hue = 2 + (b - r) / delta;
+        else hue = 4 + (r - g) / delta;
+        return hue * 60;
+    }
+
+    /**
+     * Builds the color with the given hue whose largest and smallest channels are
+     * {@code max} and {@code min}, i.e. the color with the same HSV value and saturation.
+     */
+    private static int fromHue(int alphaBits, float hue, int max, int min) {
+        hue %= 360;
+        if (hue < 0) hue += 360;
+        final float h = hue / 60;
+        final int sector = (int) h;
+        final float f = h - sector;
+        final int delta = max - min;
+        final int rising = Math.round(min + delta * f);
+        final int falling = Math.round(max - delta * f);
+
+        final int r, g, b;
+        switch (sector) {
+            case 0:
+                r = max;
+                g = rising;
+                b = min;
+                break;
+            case 1:
+                r = falling;
+                g = max;
+                b = min;
+                break;
+            case 2:
+                r = min;
+                g = max;
+                b = rising;
+                break;
+            case 3:
+                r = min;
+                g = falling;
+                b = max;
+                break;
+            case 4:
+                r = rising;
+                g = min;
+                b = max;
+                break;
+            default:
+                r = max;
+                g = min;
+                b = falling;
+                break;
+        }
+        return alphaBits | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,340 @@
+package com.cameron.materialcolorpicker;
+
+import android.content.res.AssetFileDescriptor;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.Arrays;
+
+/**
+ * An immutable list of named colors that can be shown by the ColorPicker
+ * (see {@link ColorPicker#setPalette(ColorPalette)}).
+ * <p>
+ * The palette is stored in primitive arrays only: the colors in an {@code int[]} and all names
+ * in one shared {@code char[]}, so even catalogues with tens of thousands of entries don't
+ * create an object per color. A sorted index of the colors allows finding every color whose HEX
+ * code starts with a given prefix with two binary searches.
+ * <p>
+ * Palettes are read from a text with one color per line: a 6 (RGB) or 8 (ARGB) digit HEX code,
+ * optionally prefixed with {@code #}, followed by a space, tab, comma or semicolon and the
+ * name of the color. Blank lines are ignored.
+ *
+ * <pre>
+ * #F44336 Red
+ * 4CAF50, Green
+ * 802196F3;Translucent blue
+ * </pre>
+ *
+ * @since v2.1.0
+ */
+public final class ColorPalette {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final int[] colors;
+    private final char[] names;
+    // The name of color i is names[nameStarts[i]] until names[nameStarts[i + 1]]
+    private final int[] nameStarts;
+    // The colors with their sign bit flipped, sorted. Comparing them as signed ints
+    // orders the colors as unsigned ARGB values, which is the order of their HEX codes
+    private final int[] sortedKeys;
+    // For every entry of sortedKeys, the index of the color it belongs to
+    private final int[] sortedIndices;
+
+    private ColorPalette(int[] colors, char[] names, int[] nameStarts) {
+        this.colors = colors;
+        this.names = names;
+        this.nameStarts = nameStarts;
+
+        // Sorting the key and the index packed in one long keeps the sort primitive
+        final long[] packed = new long[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            packed[i] = ((long) (colors[i] ^ Integer.MIN_VALUE) << 32) | i;
+        }
+        Arrays.sort(packed);
+        sortedKeys = new int[colors.length];
+        sortedIndices = new int[colors.length];
+        for (int i = 0; i < packed.length; i++) {
+            sortedKeys[i] = (int) (packed[i] >> 32);
+            sortedIndices[i] = (int) packed[i];
+        }
+    }
+
+    /**
+     * Creates a palette from colors that are already in memory.
+     *
+     * @param colors The colors of the palette
+     * @param names  The name of every color, or {@code null} if the colors have no names
+     * @throws IllegalArgumentException if there isn't a name for every color
+     */
+    public static ColorPalette fromArrays(@ColorInt int[] colors, @Nullable String[] names) {
+        if (names != null && names.length != colors.length) {
+            throw new IllegalArgumentException("Every color of a palette needs a name");
+        }
+        final int[] nameStarts = new int[colors.length + 1];
+        int length = 0;
+        for (int i = 0; names != null && i < names.length; i++) {
+            length += names[i].length();
+            nameStarts[i + 1] = length;
+        }
+        final char[] nameChars = new char[length];
+        for (int i = 0; names != null && i < names.length; i++) {
+            names[i].getChars(0, names[i].length(), nameChars, nameStarts[i]);
+        }
+        return new ColorPalette(colors.clone(), nameChars, nameStarts);
+    }
+
+    /**
+     * Reads a palette from a stream of UTF-8 text. The text is parsed in chunks while it is
+     * read, without creating an object per line. The stream is not closed.
+     *
+     * @param in The palette text (see the class documentation for the format)
+     * @throws IOException if the stream can't be read or a line is not a valid color
+     */
+    @WorkerThread
+    public static ColorPalette load(InputStream in) throws IOException {
+        final Reader reader = new InputStreamReader(in, "UTF-8");
+        final Parser parser = new Parser();
+        final char[] chunk = new char[CHUNK_SIZE];
+        int read;
+        while ((read = reader.read(chunk)) != -1) {
+            parser.feed(chunk, read);
+        }
+        return parser.finish();
+    }
+
+    /**
+     * Reads a palette from an asset by mapping it into memory, which avoids copying the
+     * file through a stream. The asset has to be stored uncompressed in the APK (for
+     * example with {@code aaptOptions { noCompress "txt" }}) for
+     * {@link android.content.res.AssetManager#openFd(String)} to work.
+     * The descriptor is closed once the palette has been read.
+     *
+     * @param asset The palette asset (see the class documentation for the format)
+     * @throws IOException if the asset can't be mapped or a line is not a valid color
+     */
+    @WorkerThread
+    public static ColorPalette load(AssetFileDescriptor asset) throws IOException {
+        final FileInputStream in = asset.createInputStream();
+        try {
+            final FileChannel channel = in.getChannel();
+            final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+                    asset.getStartOffset(), asset.getLength());
+            final CharsetDecoder decoder = Charset.forName("UTF-8").newDecoder();
+            final CharBuffer chunk = CharBuffer.allocate(CHUNK_SIZE);
+            final Parser parser = new Parser();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chunk, true);
+                if (result.isError()) result.throwException();
+                parser.feed(chunk.array(), chunk.position());
+                chunk.clear();
+            } while (result.isOverflow());
+            decoder.flush(chunk);
+            parser.feed(chunk.array(), chunk.position());
+            return parser.finish();
+        } finally {
+            in.close();
+            asset.close();
+        }
+    }
+
+    public int size() {
+        return colors.length;
+    }
+
+    @ColorInt
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    /**
+     * @return The name of the color, empty if it has none
+     */
+    public String getName(int index) {
+        return new String(names, nameStarts[index], nameStarts[index + 1] - nameStarts[index]);
+    }
+
+    /**
+     * The characters of all names, used for drawing a name without creating a String.
+     */
+    char[] nameChars() {
+        return names;
+    }
+
+    int nameStart(int index) {
+        return nameStarts[index];
+    }
+
+    int nameLength(int index) {
+        return nameStarts[index + 1] - nameStarts[index];
+    }
+
+    /**
+     * @param position Position in the order of the HEX codes
+     * @return The index of the color at that position
+     */
+    int sortedIndex(int position) {
+        return sortedIndices[position];
+    }
+
+    /**
+     * Finds the colors whose 8 digit (ARGB) HEX code starts with the given prefix. The matching
+     * colors are adjacent in the order of the HEX codes (see {@link #sortedIndex(int)}).
+     *
+     * @param prefix The value of the prefix
+     * @param digits The number of HEX digits in the prefix (0 - 8)
+     * @param range  Receives the first position that matches, and the position after the last one
+     */
+    void findPrefix(int prefix, int digits, int[] range) {
+        if (digits == 0) {
+            range[0] = 0;
+            range[1] = colors.length;
+            return;
+        }
+        final int shift = 4 * (8 - digits);
+        final long first = ((long) prefix & 0xFFFFFFFFL) << shift;
+        final long last = first + (1L << shift) - 1;
+        range[0] = lowerBound((int) first ^ Integer.MIN_VALUE);
+        range[1] = upperBound((int) last ^ Integer.MIN_VALUE);
+    }
+
+    private int lowerBound(int key) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedKeys[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int upperBound(int key) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedKeys[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Incremental parser for the palette text. Characters can be fed in chunks of any size,
+     * lines don't have to end with the chunk.
+     */
+    private static final class Parser {
+
+        private static final int LINE_START = 0;
+        private static final int HEX = 1;
+        private static final int SEPARATOR = 2;
+        private static final int NAME = 3;
+
+        private int[] colors = new int[256];
+        private int[] nameStarts = new int[257];
+        private char[] names = new char[4096];
+        private int count;
+        private int namesLength;
+
+        private int state = LINE_START;
+        private int line = 1;
+        private int value;
+        private int digits;
+        // End of the current name without trailing whitespace
+        private int nameEnd;
+
+        void feed(char[] chunk, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                final char c = chunk[i];
+                if (c == '\n') {
+                    endLine();
+                    continue;
+                }
+                if (c == '\r') continue;
+
+                switch (state) {
+                    case LINE_START:
+                        if (c == ' ' || c == '\t') break;
+                        state = HEX;
+                        if (c == '#') break;
+                        addDigit(c);
+                        break;
+                    case HEX:
+                        if (isSeparator(c)) state = SEPARATOR;
+                        else addDigit(c);
+                        break;
+                    case SEPARATOR:
+                        if (isSeparator(c)) break;
+                        state = NAME;
+                        addNameChar(c);
+                        break;
+                    default:
+                        addNameChar(c);
+                        break;
+                }
+            }
+        }
+
+        ColorPalette finish() throws IOException {
+            if (state != LINE_START) endLine();
+            return new ColorPalette(
+                    Arrays.copyOf(colors, count),
+                    Arrays.copyOf(names, namesLength),
+                    Arrays.copyOf(nameStarts, count + 1));
+        }
+
+        private static boolean isSeparator(char c) {
+            return c == ' ' || c == '\t' || c == ',' || c == ';';
+        }
+
+        private void addDigit(char c) throws IOException {
+            final int digit = ColorFormatHelper.hexDigitValue(c);
+            if (digit < 0 || digits == 8) throw invalidLine();
+            value = (value << 4) | digit;
+            digits++;
+        }
+
+        private void addNameChar(char c) {
+            if (namesLength == names.length) names = Arrays.copyOf(names, names.length * 2);
+            names[namesLength++] = c;
+            if (c != ' ' && c != '\t') nameEnd = namesLength;
+        }
+
+        private void endLine() throws IOException {
+            if (state != LINE_START) {
+                if (digits != 6 && digits != 8) throw invalidLine();
+                if (count == colors.length) {
+                    colors = Arrays.copyOf(colors, count * 2);
+                    nameStarts = Arrays.copyOf(nameStarts, count * 2 + 1);
+                }
+                colors[count] = digits == 6 ? 0xFF000000 | value : value;
+                // Drops the trailing whitespace of the name
+                namesLength = Math.max(nameEnd, nameStarts[count]);
+                nameStarts[++count] = namesLength;
+            }
+            state = LINE_START;
+            value = 0;
+            digits = 0;
+            nameEnd = namesLength;
+            line++;
+        }
+
+        private IOException invalidLine() {
+            return new IOException("Invalid palette color on line " + line);
+        }
+    }
+}
@@ -3,14 +3,22 @@ package com.cameron.materialcolorpicker;
 import android.app.Activity;
 import android.app.Dialog;
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.graphics.Color;
+import android.graphics.ColorSpace;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.LayerDrawable;
 import android.os.Build;
 import android.os.Bundle;
 import android.support.annotation.ColorInt;
+import android.support.annotation.ColorLong;
 import android.support.annotation.IntRange;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
 import android.text.Editable;
 import android.text.InputFilter;
 import android.text.TextWatcher;
+import android.util.TypedValue;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.Window;
@@ -24,39 +32,86 @@ import android.widget.TextView;
 import static com.cameron.materialcolorpicker.ColorFormatHelper.assertColorIsValid;
 import static com.cameron.materialcolorpicker.ColorFormatHelper.assertColorValueInRange;
 import static com.cameron.materialcolorpicker.ColorFormatHelper.formatColorValues;
+import static com.cameron.materialcolorpicker.ColorPickerStyle.same;
 
 
 /**
- * This is the only class of the project. It consists in a custom dialog that shows the GUI
+ * The main class of the project. It consists in a custom dialog that shows the GUI
  * used for choosing a color using three sliders or an input field.
  *
  * @author Simone Pessotto
  */
 public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListener {
 
+    private static final String STATE_KEY = "materialcolorpicker:state";
+    // Bumped whenever the layout of the saved state array changes
+    private static final int STATE_VERSION = 4;
+
+    private static final int STATE_FLAG_ALPHA = 1;
+    private static final int STATE_FLAG_CLOSE_ON_BUTTON = 1 << 1;
+    private static final int STATE_FLAG_CLOSE_ON_BACK = 1 << 2;
+    private static final int STATE_FLAG_HARMONIES = 1 << 3;
+    private static final int STATE_FLAG_VISION_PREVIEW = 1 << 4;
+
+    // The SeekBars edit 8 bit ARGB channels
+    private static final int CHANNEL_MODE_ARGB_8 = 0;
+    // The SeekBars edit 10 bit channels of a wide gamut color space
+    private static final int CHANNEL_MODE_WIDE_10 = 1;
+
+    // Number of colors that can be undone
+    private static final int HISTORY_SIZE = 32;
+
     private final Activity activity;
 
-    private View colorView;
-    private SeekBar alphaSeekBar;
-    private SeekBar redSeekBar;
-    private SeekBar greenSeekBar;
-    private SeekBar blueSeekBar;
+    private ColorPreviewView colorView;
+    private SwatchStripView harmonySwatches;
+    private SwatchStripView visionSwatches;
+    private PaletteView paletteView;
+    private MaterialColorPickerTextSeekBar alphaSeekBar;
+    private MaterialColorPickerTextSeekBar redSeekBar;
+    private MaterialColorPickerTextSeekBar greenSeekBar;
+    private MaterialColorPickerTextSeekBar blueSeekBar;
     private EditText hexCode;
     private Button okColor;
     private ColorPickerCallback callback;
+    private GradientPickerCallback gradientCallback;
+    private WideGamutPickerCallback wideGamutCallback;
     private int alpha;
     private int red;
     private int green;
     private int blue;
     private boolean withAlpha = false;
+    // Set while the views are being moved to the current values, so their
+    // listeners don't run the format and parse cycle for every single change
+    private boolean bindingViews = false;
+    // A drag on a SeekBar is recorded as a single history entry once it ends
+    private boolean trackingTouch = false;
+    private final ColorHistory history = new ColorHistory(HISTORY_SIZE);
     private boolean closeOnDialogButtonPressed = true;
     private boolean closeOnBackPressed = true;
-    private boolean showButtonAsTransparent = false;
-    private String buttonText = null;
-    // Object wrappers are used so that we can determine
-    // whether or not these values have been set
-    private Integer buttonTextColor = null;
-    private Integer buttonBackgroundColor = null;
+    private boolean showHarmonies = false;
+    private final int[] harmonyColors = new int[ColorMath.HARMONY_OFFSETS.length];
+    private boolean showVisionPreview = false;
+    private final int[] visionColors = new int[ColorMath.DEFICIENCIES.length];
+    private ColorPalette palette = null;
+    private ColorPickerStyle style = ColorPickerStyle.DEFAULT;
+    // The look defined by the layout, restored when a style value is unset after show
+    private CharSequence defaultButtonText;
+    private ColorStateList defaultButtonTextColors;
+    private Drawable defaultButtonBackground;
+    private float defaultPreviewElevation;
+    private final int[] defaultSliderTextColors = new int[4];
+    private ColorStateList defaultHexTextColors;
+    private float defaultHexTextSize;
+    // Only set while the picker is editing a gradient. The sliders
+    // always edit the color of the selected stop
+    private int[] gradientColors = null;
+    private float[] gradientPositions = null;
+    private int selectedStop = 0;
+    // Only set in wide gamut mode. The SeekBars then edit wideChannels (alpha, red, green,
+    // blue), and alpha, red, green and blue hold their closest sRGB color
+    private WideGamutConverter wideGamut = null;
+    private final int[] wideChannels = new int[4];
 
     /**
      * Creator of the class. It will initialize the class with black color as default
@@ -160,6 +215,71 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
         return this;
     }
 
+    /**
+     * Sets the callback used when the dialog's button is pressed while the picker
+     * is editing a gradient.
+     *
+     * @param listener The listener to be set for this dialog.
+     * @see #setGradient(int[], float[])
+     */
+    public ColorPicker setGradientCallback(GradientPickerCallback listener) {
+        gradientCallback = listener;
+        return this;
+    }
+
+    /**
+     * Switches the dialog to gradient mode. Tapping the color view selects the nearest stop,
+     * dragging moves it, and the SeekBars edit the color of the selected stop. When the
+     * dialog's button is pressed, the result is sent to the {@link GradientPickerCallback}.
+     * <p>
+     * If any of the stops is translucent, the alpha SeekBar is shown as well.
+     *
+     * @param colors    The initial color of every stop (at least two)
+     * @param positions The initial position of every stop (0 - 1), in ascending order
+     * @throws IllegalArgumentException if there are less than two stops, the arrays don't have
+     *                                  the same length or the positions aren't sorted
+     * @since v2.1.0
+     */
+    public ColorPicker setGradient(@ColorInt int[] colors, float[] positions) {
+        if (colors.length < 2 || colors.length != positions.length) {
+            throw new IllegalArgumentException("A gradient needs at least two stops, " +
+                    "each with a color and a position");
+        }
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] < 0f || positions[i] > 1f || (i > 0 && positions[i] < positions[i - 1])) {
+                throw new IllegalArgumentException("Gradient positions must be " +
+                        "between 0 and 1 and in ascending order");
+            }
+            if (Color.alpha(colors[i]) != 255) withAlpha = true;
+        }
+        gradientColors = colors.clone();
+        gradientPositions = positions.clone();
+        selectStop(0);
+        if (okColor != null) {
+            colorView.setGradient(gradientColors, gradientPositions, selectedStop);
+            bindColor();
+        }
+        resetHistory();
+        return this;
+    }
+
+    /**
+     * Leaves gradient mode, the dialog edits a single color again.
+     *
+     * @since v2.1.0
+     */
+    public ColorPicker clearGradient() {
+        gradientColors = null;
+        gradientPositions = null;
+        selectedStop = 0;
+        if (okColor != null) {
+            colorView.setGradient(null, null, 0);
+            bindColor();
+        }
+        resetHistory();
+        return this;
+    }
+
     /**
      * Sets the color of the dialog's color view. When set, the
      * dialog will show this color when{@link #show()} is called
@@ -169,63 +289,125 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
      *
      */
     public ColorPicker setColor(@ColorInt int color) {
+        setSrgb(color);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && wideGamut != null) {
+            wideGamut.fromSrgb(color, wideChannels);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the color of the dialog's color view in wide gamut mode, keeping the precision
+     * of the color. Outside of wide gamut mode, the color is converted to sRGB.
+     *
+     * @param color The color to be shown in the dialog, in any color space
+     * @see #setWideGamut(ColorSpace.Named)
+     * @since v2.1.0
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public ColorPicker setColorLong(@ColorLong long color) {
+        if (wideGamut == null) return setColor(Color.toArgb(color));
+        wideGamut.unpack(color, wideChannels);
+        setSrgb(wideGamut.toSrgb(wideChannels));
+        return this;
+    }
+
+    /**
+     * Switches the SeekBars to 10 bit channels (0 - 1023) of a wide gamut color space such as
+     * {@link ColorSpace.Named#DISPLAY_P3}. The chosen color is then reported as a color long in
+     * that color space by {@link #getColorLong()} and the {@link WideGamutPickerCallback}.
+     * <p>
+     * The color view, the HEX code, the harmonies and the palette keep working on the closest
+     * sRGB color, the undo history keeps the wide channels. Note that colors in
+     * {@link ColorSpace.Named#SRGB} are packed with 8 bit channels.
+     *
+     * @param colorSpace The RGB color space to edit, {@code null} to go back to 8 bit sRGB
+     * @throws IllegalArgumentException if the color space is not an RGB color space
+     * @since v2.1.0
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public ColorPicker setWideGamut(@Nullable ColorSpace.Named colorSpace) {
+        wideGamut = colorSpace == null ? null : new WideGamutConverter(colorSpace);
+        if (wideGamut != null) wideGamut.fromSrgb(Color.argb(alpha, red, green, blue), wideChannels);
+        if (okColor != null) updateSliders();
+        // Channels that were recorded in another color space can't be undone to
+        resetHistory();
+        return this;
+    }
+
+    /**
+     * Sets the callback used when the dialog's button is pressed while the picker is in wide
+     * gamut mode. It is called in addition to the {@link ColorPickerCallback}.
+     *
+     * @param listener The listener to be set for this dialog.
+     * @see #setWideGamut(ColorSpace.Named)
+     * @since v2.1.0
+     */
+    public ColorPicker setWideGamutCallback(WideGamutPickerCallback listener) {
+        wideGamutCallback = listener;
+        return this;
+    }
+
+    private void setSrgb(@ColorInt int color) {
         alpha = Color.alpha(color);
         red = Color.red(color);
         green = Color.green(color);
         blue = Color.blue(color);
+    }
+
+    /**
+     * Sets the style of the dialog. Before the dialog has been shown, the style is only stored
+     * and applied in one pass once the views exist. Afterwards, only the views whose values
+     * differ from the current style are updated.
+     *
+     * @param style The style to be used for this dialog.
+     * @since v2.1.0
+     */
+    public ColorPicker setStyle(ColorPickerStyle style) {
+        if (okColor != null) applyStyle(this.style, style);
+        this.style = style;
         return this;
     }
 
+    /**
+     * Getter for the current style of the dialog.
+     *
+     * @return The current style, never {@code null}
+     * @since v2.1.0
+     */
+    public ColorPickerStyle getStyle() {
+        return style;
+    }
+
     /**
      * Sets the text of the dialog button.
      * The default value is {@code "SUBMIT"}.
      *
      * @param buttonText The text to be shown on the dialog's button.
+     * @see #setStyle(ColorPickerStyle)
      */
     public ColorPicker setDialogButtonText(String buttonText) {
-        // The view cannot be changed before onCreate has been called so we'll
-        // simply store the text as a string so the text can be changed after
-        // the views have been initialized
-        this.buttonText = buttonText;
-        try {
-            okColor.setText(buttonText);
-        } catch (NullPointerException ignored) {
-            // The text of the button cannot be changed
-            // before setContentView is called. By catching this error,
-            // we can set the text of the button after the dialog
-            // has been created, as well as before
-        }
-        return this;
+        return setStyle(style.toBuilder().setButtonText(buttonText).build());
     }
 
     /**
      * Sets the text color of the dialog's button.
      *
      * @param buttonTextColor The text color to be used for the dialog's button.
+     * @see #setStyle(ColorPickerStyle)
      */
     public ColorPicker setDialogButtonTextColor(@ColorInt int buttonTextColor) {
-        this.buttonTextColor = buttonTextColor;
-        try {
-            okColor.setTextColor(buttonTextColor);
-        } catch (NullPointerException ignored) {
-            // Same reason as above
-        }
-        return this;
+        return setStyle(style.toBuilder().setButtonTextColor(buttonTextColor).build());
     }
 
     /**
      * Sets the background color of the dialog's button.
      *
      * @param buttonBackgroundColor The background color of the dialog's button.
+     * @see #setStyle(ColorPickerStyle)
      */
     public ColorPicker setDialogButtonBackgroundColor(@ColorInt int buttonBackgroundColor) {
-        this.buttonBackgroundColor = buttonBackgroundColor;
-        try {
-            okColor.setBackgroundColor(buttonBackgroundColor);
-        } catch (NullPointerException ignored) {
-            // Still same reason
-        }
-        return this;
+        return setStyle(style.toBuilder().setButtonBackgroundColor(buttonBackgroundColor).build());
     }
 
     /**
@@ -233,12 +415,149 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
      * The default value is {@code false}
      *
      * @param transparentButton Whether thie dialog's button should show as transparent
+     * @see #setStyle(ColorPickerStyle)
      */
     public ColorPicker showButtonAsTransparent(boolean transparentButton) {
-        this.showButtonAsTransparent = transparentButton;
+        return setStyle(style.toBuilder().setButtonTransparent(transparentButton).build());
+    }
+
+    /**
+     * Set whether or not the complementary, analogous, triadic and tetradic harmonies of the
+     * current color should be shown below the color view. Tapping a harmony selects it.
+     * The default value is {@code false}
+     *
+     * @param showHarmonies Whether the harmonies should be shown
+     * @since v2.1.0
+     */
+    public ColorPicker showHarmonies(boolean showHarmonies) {
+        this.showHarmonies = showHarmonies;
+        if (harmonySwatches != null) {
+            harmonySwatches.setVisibility(showHarmonies ? View.VISIBLE : View.GONE);
+            updatePreview();
+        }
         return this;
     }
 
+    /**
+     * Set whether or not the current color should also be shown as it appears with
+     * protanopia, deuteranopia and tritanopia, below the color view.
+     * The default value is {@code false}
+     *
+     * @param showVisionPreview Whether the color vision deficiency previews should be shown
+     * @since v2.1.0
+     */
+    public ColorPicker showColorVisionPreview(boolean showVisionPreview) {
+        this.showVisionPreview = showVisionPreview;
+        if (visionSwatches != null) {
+            visionSwatches.setVisibility(showVisionPreview ? View.VISIBLE : View.GONE);
+            updatePreview();
+        }
+        return this;
+    }
+
+    /**
+     * Sets a palette of named colors to be shown below the color view. Tapping a color selects
+     * it, and typing the beginning of a HEX code narrows the palette down to the matching colors.
+     * Large palettes should be loaded off the UI thread with {@link ColorPalette#load}.
+     *
+     * @param palette The palette to be shown, {@code null} to hide the palette
+     * @since v2.1.0
+     */
+    public ColorPicker setPalette(ColorPalette palette) {
+        this.palette = palette;
+        if (paletteView != null) {
+            paletteView.setPalette(palette);
+            paletteView.setVisibility(palette != null ? View.VISIBLE : View.GONE);
+        }
+        return this;
+    }
+
+    /**
+     * Whether there is a color that can be restored with {@link #undo()}.
+     *
+     * @since v2.1.0
+     */
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    /**
+     * Whether there is a color that can be restored with {@link #redo()}.
+     *
+     * @since v2.1.0
+     */
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    /**
+     * Goes back to the color before the last change. A whole drag of a SeekBar, a HEX code
+     * entry or a tap on a harmony counts as a single change.
+     * <p>
+     * While editing a gradient, only the color changes of the selected stop can be undone.
+     * Selecting another stop starts a new history, moving stops is not part of it.
+     *
+     * @return Whether there was something to undo
+     * @since v2.1.0
+     */
+    public boolean undo() {
+        if (!history.canUndo()) return false;
+        history.undo();
+        applyHistoryEntry();
+        return true;
+    }
+
+    /**
+     * Reapplies the last change that was undone.
+     *
+     * @return Whether there was something to redo
+     * @since v2.1.0
+     */
+    public boolean redo() {
+        if (!history.canRedo()) return false;
+        history.redo();
+        applyHistoryEntry();
+        return true;
+    }
+
+    /**
+     * Starts a new history with the current color, e.g. when another gradient stop is
+     * selected. The history only stores colors, so its entries would otherwise be applied
+     * to whichever stop happens to be selected.
+     */
+    private void resetHistory() {
+        history.clear();
+        // Without views the first entry is pushed by initUi
+        if (okColor != null) pushHistory();
+    }
+
+    /**
+     * Records the current color, along with the wide channels in wide gamut mode so that
+     * undoing doesn't round them to 8 bit sRGB.
+     */
+    private void pushHistory() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && wideGamut != null) {
+            history.push(getColor(), WideGamutConverter.packChannels(wideChannels));
+        } else {
+            history.push(getColor());
+        }
+    }
+
+    private void applyHistoryEntry() {
+        final long channels = history.currentChannels();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && wideGamut != null
+                && channels != ColorHistory.NO_CHANNELS) {
+            WideGamutConverter.unpackChannels(channels, wideChannels);
+            setSrgb(history.current());
+        } else {
+            setColor(history.current());
+        }
+        if (okColor == null) return;
+        updateSliders();
+        updatePreview();
+        notifyColorChanged();
+    }
+
     /**
      * Getter for the ALPHA value of the ARGB selected color
      *
@@ -292,29 +611,254 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
         return withAlpha ? Color.argb(alpha, red, green, blue) : Color.rgb(red, green, blue);
     }
 
-    private void initUi() {
-        colorView.setBackgroundColor(getColor());
+    /**
+     * Getter for the color as a color long. In wide gamut mode, the color is in the picker's
+     * color space with the full precision of the SeekBars, otherwise it is in sRGB.
+     *
+     * @return Selected color as a color long
+     * @see #setWideGamut(ColorSpace.Named)
+     * @since v2.1.0
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @ColorLong
+    public long getColorLong() {
+        if (wideGamut == null) return Color.pack(getColor());
+        return wideGamut.pack(wideChannels, !withAlpha);
+    }
+
+    /**
+     * Getter for the colors of the gradient stops.
+     *
+     * @return A copy of the stop colors, or {@code null} if the picker isn't in gradient mode
+     * @since v2.1.0
+     */
+    public int[] getGradientColors() {
+        return gradientColors == null ? null : gradientColors.clone();
+    }
 
+    /**
+     * Getter for the positions of the gradient stops.
+     *
+     * @return A copy of the stop positions, or {@code null} if the picker isn't in gradient mode
+     * @since v2.1.0
+     */
+    public float[] getGradientPositions() {
+        return gradientPositions == null ? null : gradientPositions.clone();
+    }
+
+    /**
+     * Makes the stop at the given index the one edited by the SeekBars.
+     */
+    private void selectStop(int index) {
+        selectedStop = index;
+        setColor(gradientColors[index]);
+    }
+
+    /**
+     * Shows the current color in the color view. In gradient mode, the current color
+     * is written to the selected stop and the gradient is only rebuilt if it changed.
+     */
+    private void updatePreview() {
+        final int color = getColor();
+        if (gradientColors == null) {
+            colorView.setColor(color);
+        } else if (gradientColors[selectedStop] != color) {
+            gradientColors[selectedStop] = color;
+            colorView.onStopChanged();
+        }
+
+        if (showHarmonies) {
+            ColorMath.harmonies(color, harmonyColors);
+            harmonySwatches.setColors(harmonyColors);
+        }
+
+        if (showVisionPreview) {
+            for (int i = 0; i < visionColors.length; i++) {
+                visionColors[i] = ColorMath.simulate(color, ColorMath.DEFICIENCIES[i]);
+            }
+            visionSwatches.setColors(visionColors);
+        }
+    }
+
+    /**
+     * Moves the SeekBars and the HEX code to the current color values. The HEX code is
+     * formatted once, and the SeekBar and text listeners ignore the changes made here.
+     */
+    private void updateSliders() {
+        updateSeekBars();
+        updateHexCode();
+    }
+
+    private void updateSeekBars() {
+        final boolean wasBinding = bindingViews;
+        bindingViews = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && wideGamut != null) {
+            setSeekBars(WideGamutConverter.CHANNEL_MAX,
+                    wideChannels[0], wideChannels[1], wideChannels[2], wideChannels[3]);
+        } else {
+            setSeekBars(255, alpha, red, green, blue);
+        }
+        bindingViews = wasBinding;
+    }
+
+    private void setSeekBars(int max, int alpha, int red, int green, int blue) {
+        alphaSeekBar.setMax(max);
+        redSeekBar.setMax(max);
+        greenSeekBar.setMax(max);
+        blueSeekBar.setMax(max);
         alphaSeekBar.setProgress(alpha);
         redSeekBar.setProgress(red);
         greenSeekBar.setProgress(green);
         blueSeekBar.setProgress(blue);
+    }
 
-        if (!withAlpha) {
-            alphaSeekBar.setVisibility(View.GONE);
-        }
-
+    private void updateHexCode() {
+        final boolean wasBinding = bindingViews;
+        bindingViews = true;
         hexCode.setText(withAlpha
                 ? formatColorValues(alpha, red, green, blue)
                 : formatColorValues(red, green, blue)
         );
+        bindingViews = wasBinding;
     }
 
-    private void sendColor() {
+    /**
+     * Selects a color picked from outside the SeekBars, such as a harmony or a palette entry.
+     */
+    private void pickColor(@ColorInt int color) {
+        setColor(color);
+        updateSliders();
+        updatePreview();
+        notifyColorChanged();
+        pushHistory();
+    }
+
+    /**
+     * Narrows the palette down to the colors starting with the HEX code typed so far.
+     * A complete HEX code is a color rather than a search, so it shows the whole palette.
+     */
+    private void filterPalette(CharSequence text) {
+        final int length = text.length();
+        if (length == 0 || length >= (withAlpha ? 8 : 6)) {
+            paletteView.clearFilter();
+            return;
+        }
+        int prefix = 0;
+        for (int i = 0; i < length; i++) {
+            final int digit = ColorFormatHelper.hexDigitValue(text.charAt(i));
+            if (digit < 0) {
+                paletteView.clearFilter();
+                return;
+            }
+            prefix = (prefix << 4) | digit;
+        }
+        // The palette is searched by ARGB codes, without alpha only opaque colors can match
+        if (withAlpha) paletteView.setFilter(prefix, length);
+        else paletteView.setFilter((0xFF << (4 * length)) | prefix, length + 2);
+    }
+
+    private void notifyColorChanged() {
         if (callback != null) {
-            String hex = String.format("#%08X", getColor());
-            String hexNoAlpha = String.format("#%06X", (0xFFFFFF & getColor()));
-            callback.onColorChosen(getColor(), hex, hexNoAlpha);
+            callback.onColorChanged(getColor(), formatColorValues(red, green, blue), formatColorValues(alpha, red, green, blue));
+        }
+    }
+
+    private void initUi() {
+        if (gradientColors != null) selectStop(selectedStop);
+        colorView.setGradient(gradientColors, gradientPositions, selectedStop);
+        harmonySwatches.setVisibility(showHarmonies ? View.VISIBLE : View.GONE);
+        visionSwatches.setVisibility(showVisionPreview ? View.VISIBLE : View.GONE);
+        paletteView.setVisibility(palette != null ? View.VISIBLE : View.GONE);
+        bindColor();
+        pushHistory();
+    }
+
+    /**
+     * Shows the current color, and whether it has an alpha channel, in every view.
+     */
+    private void bindColor() {
+        alphaSeekBar.setVisibility(withAlpha ? View.VISIBLE : View.GONE);
+        hexCode.setFilters(new InputFilter[]{new InputFilter.LengthFilter(withAlpha ? 8 : 6)});
+        updatePreview();
+        updateSliders();
+    }
+
+    /**
+     * Remembers the look defined by the layout, so that values can be restored
+     * when they are removed from the style after the dialog has been shown.
+     */
+    private void storeDefaultStyle() {
+        defaultButtonText = okColor.getText();
+        defaultButtonTextColors = okColor.getTextColors();
+        defaultButtonBackground = okColor.getBackground();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            defaultPreviewElevation = colorView.getElevation();
+        }
+        defaultSliderTextColors[0] = alphaSeekBar.getTextColor();
+        defaultSliderTextColors[1] = redSeekBar.getTextColor();
+        defaultSliderTextColors[2] = greenSeekBar.getTextColor();
+        defaultSliderTextColors[3] = blueSeekBar.getTextColor();
+        defaultHexTextColors = hexCode.getTextColors();
+        defaultHexTextSize = hexCode.getTextSize();
+    }
+
+    /**
+     * Updates every view whose value differs between the two styles. Binding the views
+     * for the first time is simply a change from {@link ColorPickerStyle#DEFAULT}.
+     */
+    private void applyStyle(ColorPickerStyle from, ColorPickerStyle to) {
+        if (!same(from.getButtonText(), to.getButtonText())) {
+            okColor.setText(to.getButtonText() != null ? to.getButtonText() : defaultButtonText);
+        }
+        if (!same(from.getButtonTextColor(), to.getButtonTextColor())) {
+            if (to.getButtonTextColor() != null) okColor.setTextColor(to.getButtonTextColor());
+            else okColor.setTextColor(defaultButtonTextColors);
+        }
+        final Integer buttonBackground = to.resolveButtonBackground();
+        if (!same(from.resolveButtonBackground(), buttonBackground)) {
+            if (buttonBackground != null) okColor.setBackgroundColor(buttonBackground);
+            else okColor.setBackground(defaultButtonBackground);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                && !same(from.getPreviewElevation(), to.getPreviewElevation())) {
+            colorView.setElevation(to.getPreviewElevation() != null
+                    ? to.getPreviewElevation() : defaultPreviewElevation);
+        }
+        if (!same(from.getSliderTextColor(), to.getSliderTextColor())) {
+            final Integer color = to.getSliderTextColor();
+            alphaSeekBar.setTextColor(color != null ? color : defaultSliderTextColors[0]);
+            redSeekBar.setTextColor(color != null ? color : defaultSliderTextColors[1]);
+            greenSeekBar.setTextColor(color != null ? color : defaultSliderTextColors[2]);
+            blueSeekBar.setTextColor(color != null ? color : defaultSliderTextColors[3]);
+        }
+        if (!same(from.getHexTextColor(), to.getHexTextColor())) {
+            if (to.getHexTextColor() != null) hexCode.setTextColor(to.getHexTextColor());
+            else hexCode.setTextColor(defaultHexTextColors);
+        }
+        if (!same(from.getHexTextSize(), to.getHexTextSize())) {
+            if (to.getHexTextSize() != null) {
+                hexCode.setTextSize(TypedValue.COMPLEX_UNIT_SP, to.getHexTextSize());
+            } else {
+                hexCode.setTextSize(TypedValue.COMPLEX_UNIT_PX, defaultHexTextSize);
+            }
+        }
+    }
+
+    private void sendColor() {
+        if (gradientColors != null) {
+            if (gradientCallback != null) {
+                gradientCallback.onGradientChosen(gradientColors.clone(), gradientPositions.clone());
+            }
+        } else {
+            if (callback != null) {
+                String hex = String.format("#%08X", getColor());
+                String hexNoAlpha = String.format("#%06X", (0xFFFFFF & getColor()));
+                callback.onColorChosen(getColor(), hex, hexNoAlpha);
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                    && wideGamut != null && wideGamutCallback != null) {
+                wideGamutCallback.onColorChosen(getColorLong());
+            }
         }
         if (closeOnDialogButtonPressed) {
             dismiss();
@@ -328,18 +872,12 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
      */
     private void updateColorView(String input) {
         try {
-            final int color = Color.parseColor('#' + input);
-            alpha = Color.alpha(color);
-            red = Color.red(color);
-            green = Color.green(color);
-            blue = Color.blue(color);
-
-            colorView.setBackgroundColor(getColor());
-
-            alphaSeekBar.setProgress(alpha);
-            redSeekBar.setProgress(red);
-            greenSeekBar.setProgress(green);
-            blueSeekBar.setProgress(blue);
+            setColor(Color.parseColor('#' + input));
+            updatePreview();
+            updateSeekBars();
+            // The SeekBar listener ignores updateSeekBars, so the callback is notified here
+            notifyColorChanged();
+            pushHistory();
         } catch (IllegalArgumentException ignored) {
             hexCode.setError(activity.getResources().getText(R.string.materialcolorpicker__errHex));
         }
@@ -361,19 +899,66 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
         setContentView(R.layout.materialcolorpicker__layout_color_picker);
 
         colorView = findViewById(R.id.colorView);
+        colorView.setOnStopChangeListener(new ColorPreviewView.OnStopChangeListener() {
+            @Override
+            public void onStopSelected(int index) {
+                final boolean otherStop = index != selectedStop;
+                selectStop(index);
+                updateSliders();
+                updatePreview();
+                if (otherStop) resetHistory();
+            }
+
+            @Override
+            public void onSelectedStopMoved(int index) {
+                // Still the same stop, so its color and its history stay as they are
+                selectedStop = index;
+            }
+        });
+
+        harmonySwatches = findViewById(R.id.harmonySwatches);
+        harmonySwatches.setGroups(ColorMath.HARMONY_GROUPS);
+        harmonySwatches.setOnSwatchClickListener(new SwatchStripView.OnSwatchClickListener() {
+            @Override
+            public void onSwatchClick(int color) {
+                pickColor(color);
+            }
+        });
+
+        visionSwatches = findViewById(R.id.visionSwatches);
+        visionSwatches.setGroups(new int[]{1, 1, 1});
+        visionSwatches.setLabels(new String[]{
+                activity.getString(R.string.materialcolorpicker__protanopia),
+                activity.getString(R.string.materialcolorpicker__deuteranopia),
+                activity.getString(R.string.materialcolorpicker__tritanopia)
+        });
+
+        paletteView = findViewById(R.id.paletteView);
+        paletteView.setPalette(palette);
+        paletteView.setOnPaletteClickListener(new PaletteView.OnPaletteClickListener() {
+            @Override
+            public void onPaletteClick(int color) {
+                pickColor(color);
+            }
+        });
         hexCode = findViewById(R.id.hexCode);
         alphaSeekBar = findViewById(R.id.alphaSeekBar);
         redSeekBar = findViewById(R.id.redSeekBar);
         greenSeekBar = findViewById(R.id.greenSeekBar);
         blueSeekBar = findViewById(R.id.blueSeekBar);
 
+        // Show the alpha track over the same checkerboard as the color view
+        final Drawable alphaTrack = alphaSeekBar.getProgressDrawable().mutate();
+        if (alphaTrack instanceof LayerDrawable) {
+            ((LayerDrawable) alphaTrack).setDrawableByLayerId(android.R.id.background,
+                    new CheckerboardDrawable(getContext()));
+        }
+
         alphaSeekBar.setOnSeekBarChangeListener(this);
         redSeekBar.setOnSeekBarChangeListener(this);
         greenSeekBar.setOnSeekBarChangeListener(this);
         blueSeekBar.setOnSeekBarChangeListener(this);
 
-        hexCode.setFilters(new InputFilter[]{new InputFilter.LengthFilter(withAlpha ? 8 : 6)});
-
         hexCode.setOnEditorActionListener(new EditText.OnEditorActionListener() {
             @Override
             public boolean onEditorAction(TextView v, int actionId, KeyEvent event) {
@@ -401,6 +986,8 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
+                if (palette != null) filterPalette(s);
+                if (bindingViews) return;
                 try {
                     // Once we know the color is valid, we can then update the color view
                     if (assertColorIsValid(s.toString(), withAlpha)) {
@@ -416,10 +1003,8 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
         });
 
         okColor = findViewById(R.id.okColorButton);
-        if (buttonText != null) okColor.setText(buttonText);
-        if (showButtonAsTransparent) okColor.setBackgroundColor(Color.TRANSPARENT);
-        if (buttonTextColor != null) okColor.setTextColor(buttonTextColor);
-        if (buttonBackgroundColor != null) okColor.setBackgroundColor(buttonBackgroundColor);
+        storeDefaultStyle();
+        applyStyle(ColorPickerStyle.DEFAULT, style);
 
         okColor.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -449,28 +1034,46 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
      */
     @Override
     public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-        if (seekBar.getId() == R.id.alphaSeekBar) alpha = progress;
-        else if (seekBar.getId() == R.id.redSeekBar) red = progress;
-        else if (seekBar.getId() == R.id.greenSeekBar) green = progress;
-        else if (seekBar.getId() == R.id.blueSeekBar) blue = progress;
+        if (bindingViews) return;
 
-        colorView.setBackgroundColor(getColor());
-        if (callback != null) {
-            callback.onColorChanged(getColor(), formatColorValues(red, green, blue), formatColorValues(alpha, red, green, blue));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && wideGamut != null) {
+            wideChannels[channelOf(seekBar)] = progress;
+            setSrgb(wideGamut.toSrgb(wideChannels));
+        } else {
+            if (seekBar.getId() == R.id.alphaSeekBar) alpha = progress;
+            else if (seekBar.getId() == R.id.redSeekBar) red = progress;
+            else if (seekBar.getId() == R.id.greenSeekBar) green = progress;
+            else if (seekBar.getId() == R.id.blueSeekBar) blue = progress;
         }
 
+        updatePreview();
+        notifyColorChanged();
+        // Changes made with a keyboard or a D-pad don't start a drag
+        if (fromUser && !trackingTouch) pushHistory();
+
         //Setting the inputText hex color
-        hexCode.setText(withAlpha
-                ? formatColorValues(alpha, red, green, blue)
-                : formatColorValues(red, green, blue));
+        updateHexCode();
+    }
+
+    /**
+     * @return The index of the SeekBar's channel in {@link #wideChannels}
+     */
+    private static int channelOf(SeekBar seekBar) {
+        if (seekBar.getId() == R.id.alphaSeekBar) return 0;
+        if (seekBar.getId() == R.id.redSeekBar) return 1;
+        if (seekBar.getId() == R.id.greenSeekBar) return 2;
+        return 3;
     }
 
     @Override
     public void onStopTrackingTouch(SeekBar seekBar) {
+        trackingTouch = false;
+        pushHistory();
     }
 
     @Override
     public void onStartTrackingTouch(SeekBar seekBar) {
+        trackingTouch = true;
     }
 
     @Override
@@ -478,4 +1081,132 @@ public class ColorPicker extends Dialog implements SeekBar.OnSeekBarChangeListen
         super.show();
         initUi();
     }
+
+    /**
+     * Saves the whole state of the picker (color, alpha mode, options, gradient stops and
+     * undo history) as a single int array, so a host can restore it after a configuration change with
+     * {@link #onRestoreInstanceState(Bundle)} instead of configuring the dialog again.
+     *
+     * @return The saved state, also containing the state of the dialog itself
+     */
+    @Override
+    public Bundle onSaveInstanceState() {
+        final Bundle state = super.onSaveInstanceState();
+        state.putIntArray(STATE_KEY, saveState());
+        return state;
+    }
+
+    /**
+     * Restores a state saved with {@link #onSaveInstanceState()}. If the dialog was showing, it
+     * is shown again by the dialog's own restore, which binds the views to the restored values
+     * once, without going through the HEX text listener.
+     *
+     * @param savedInstanceState The state returned by {@link #onSaveInstanceState()}
+     */
+    @Override
+    public void onRestoreInstanceState(Bundle savedInstanceState) {
+        restoreState(savedInstanceState.getIntArray(STATE_KEY));
+
+        // Restoring the view hierarchy changes the SeekBars and the HEX code one by
+        // one, the values are already known so there is no need to react to that
+        bindingViews = true;
+        try {
+            super.onRestoreInstanceState(savedInstanceState);
+        } finally {
+            bindingViews = false;
+        }
+    }
+
+    /**
+     * Layout: version, color, flags, channel mode, selected stop, stop count, history size,
+     * history cursor, then the stop colors, the raw bits of the stop positions and the
+     * history entries (oldest first). In wide gamut mode, the color space, the four wide
+     * channels and the packed wide channels of every history entry (two ints each) follow.
+     */
+    private int[] saveState() {
+        final int stops = gradientColors == null ? 0 : gradientColors.length;
+        final boolean wide = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && wideGamut != null;
+        final int wideStart = 8 + stops * 2 + history.size();
+        final int[] state = new int[wideStart
+                + (wide ? 1 + wideChannels.length + history.size() * 2 : 0)];
+        state[0] = STATE_VERSION;
+        state[1] = Color.argb(alpha, red, green, blue);
+        state[2] = (withAlpha ? STATE_FLAG_ALPHA : 0)
+                | (closeOnDialogButtonPressed ? STATE_FLAG_CLOSE_ON_BUTTON : 0)
+                | (closeOnBackPressed ? STATE_FLAG_CLOSE_ON_BACK : 0)
+                | (showHarmonies ? STATE_FLAG_HARMONIES : 0)
+                | (showVisionPreview ? STATE_FLAG_VISION_PREVIEW : 0);
+        state[3] = wide ? CHANNEL_MODE_WIDE_10 : CHANNEL_MODE_ARGB_8;
+        state[4] = selectedStop;
+        state[5] = stops;
+        state[6] = history.size();
+        state[7] = history.cursor();
+        for (int i = 0; i < stops; i++) {
+            state[8 + i] = gradientColors[i];
+            state[8 + stops + i] = Float.floatToRawIntBits(gradientPositions[i]);
+        }
+        for (int i = 0; i < history.size(); i++) {
+            state[8 + stops * 2 + i] = history.get(i);
+        }
+        if (wide) {
+            state[wideStart] = wideGamut.getColorSpaceId();
+            System.arraycopy(wideChannels, 0, state, wideStart + 1, wideChannels.length);
+            final int historyStart = wideStart + 1 + wideChannels.length;
+            for (int i = 0; i < history.size(); i++) {
+                final long channels = history.getChannels(i);
+                state[historyStart + i * 2] = (int) (channels >> 32);
+                state[historyStart + i * 2 + 1] = (int) channels;
+            }
+        }
+        return state;
+    }
+
+    private void restoreState(int[] state) {
+        // A state from another version of the library is ignored rather than misread
+        if (state == null || state.length < 8 || state[0] != STATE_VERSION) return;
+        final int stops = state[5];
+        final boolean wide = state[3] == CHANNEL_MODE_WIDE_10;
+        final long wideStart = 8L + stops * 2L + state[6];
+        if (stops < 0 || stops == 1 || state[6] < 0
+                || state.length != wideStart + (wide ? 1 + wideChannels.length + state[6] * 2L : 0)
+                || (stops > 0 && (state[4] < 0 || state[4] >= stops))) {
+            return;
+        }
+        WideGamutConverter restoredGamut = null;
+        if (wide) {
+            // Wide gamut mode can't be saved below API 26, nor can an unknown color space be used
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+            restoredGamut = WideGamutConverter.fromColorSpaceId(state[(int) wideStart]);
+            if (restoredGamut == null) return;
+        }
+
+        setColor(state[1]);
+        withAlpha = (state[2] & STATE_FLAG_ALPHA) != 0;
+        closeOnDialogButtonPressed = (state[2] & STATE_FLAG_CLOSE_ON_BUTTON) != 0;
+        closeOnBackPressed = (state[2] & STATE_FLAG_CLOSE_ON_BACK) != 0;
+        showHarmonies = (state[2] & STATE_FLAG_HARMONIES) != 0;
+        showVisionPreview = (state[2] & STATE_FLAG_VISION_PREVIEW) != 0;
+
+        if (stops == 0) {
+            gradientColors = null;
+            gradientPositions = null;
+            selectedStop = 0;
+        } else {
+            gradientColors = new int[stops];
+            gradientPositions = new float[stops];
+            for (int i = 0; i < stops; i++) {
+                gradientColors[i] = state[8 + i];
+                gradientPositions[i] = Float.intBitsToFloat(state[8 + stops + i]);
+            }
+            selectedStop = state[4];
+        }
+        history.restore(state, 8 + stops * 2, state[6], state[7]);
+
+        wideGamut = restoredGamut;
+        if (wide) {
+            final int channelsStart = (int) wideStart + 1;
+            System.arraycopy(state, channelsStart, wideChannels, 0, wideChannels.length);
+            history.restoreChannels(state, channelsStart + wideChannels.length, state[6]);
+        }
+    }
 }
\ No newline at end of file
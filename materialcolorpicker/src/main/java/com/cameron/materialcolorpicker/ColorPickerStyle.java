@@ -0,0 +1,204 @@
+package com.cameron.materialcolorpicker;
+
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+
+/**
+ * Immutable description of how the ColorPicker dialog looks. Instances are created with a
+ * {@link Builder} and handed to {@link ColorPicker#setStyle(ColorPickerStyle)}. The style is
+ * applied in one pass once the dialog's views exist; setting a new style while the dialog is
+ * showing only touches the views whose values differ from the current style.
+ * <p>
+ * Every value is optional. Values that aren't set keep the look defined by the dialog's layout.
+ *
+ * @since v2.1.0
+ */
+public final class ColorPickerStyle {
+
+    /**
+     * The style used when nothing has been customized.
+     */
+    public static final ColorPickerStyle DEFAULT = new Builder().build();
+
+    // Object wrappers are used so that we can determine
+    // whether or not these values have been set
+    private final String buttonText;
+    private final Integer buttonTextColor;
+    private final Integer buttonBackgroundColor;
+    private final boolean buttonTransparent;
+    private final Float previewElevation;
+    private final Integer sliderTextColor;
+    private final Integer hexTextColor;
+    private final Float hexTextSize;
+
+    private ColorPickerStyle(Builder builder) {
+        buttonText = builder.buttonText;
+        buttonTextColor = builder.buttonTextColor;
+        buttonBackgroundColor = builder.buttonBackgroundColor;
+        buttonTransparent = builder.buttonTransparent;
+        previewElevation = builder.previewElevation;
+        sliderTextColor = builder.sliderTextColor;
+        hexTextColor = builder.hexTextColor;
+        hexTextSize = builder.hexTextSize;
+    }
+
+    /**
+     * @return A builder initialized with the values of this style
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @Nullable
+    public String getButtonText() {
+        return buttonText;
+    }
+
+    @Nullable
+    public Integer getButtonTextColor() {
+        return buttonTextColor;
+    }
+
+    @Nullable
+    public Integer getButtonBackgroundColor() {
+        return buttonBackgroundColor;
+    }
+
+    public boolean isButtonTransparent() {
+        return buttonTransparent;
+    }
+
+    @Nullable
+    public Float getPreviewElevation() {
+        return previewElevation;
+    }
+
+    @Nullable
+    public Integer getSliderTextColor() {
+        return sliderTextColor;
+    }
+
+    @Nullable
+    public Integer getHexTextColor() {
+        return hexTextColor;
+    }
+
+    @Nullable
+    public Float getHexTextSize() {
+        return hexTextSize;
+    }
+
+    /**
+     * @return The color the button background should be drawn with, or {@code null} if
+     * the layout's background should be used. An explicit background color wins over
+     * {@link #isButtonTransparent()}.
+     */
+    @Nullable
+    Integer resolveButtonBackground() {
+        if (buttonBackgroundColor != null) return buttonBackgroundColor;
+        return buttonTransparent ? Integer.valueOf(0x00000000) : null;
+    }
+
+    static boolean same(@Nullable Object a, @Nullable Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Builder for {@link ColorPickerStyle}.
+     */
+    public static final class Builder {
+
+        private String buttonText;
+        private Integer buttonTextColor;
+        private Integer buttonBackgroundColor;
+        private boolean buttonTransparent;
+        private Float previewElevation;
+        private Integer sliderTextColor;
+        private Integer hexTextColor;
+        private Float hexTextSize;
+
+        public Builder() {
+        }
+
+        private Builder(ColorPickerStyle style) {
+            buttonText = style.buttonText;
+            buttonTextColor = style.buttonTextColor;
+            buttonBackgroundColor = style.buttonBackgroundColor;
+            buttonTransparent = style.buttonTransparent;
+            previewElevation = style.previewElevation;
+            sliderTextColor = style.sliderTextColor;
+            hexTextColor = style.hexTextColor;
+            hexTextSize = style.hexTextSize;
+        }
+
+        /**
+         * @param buttonText The text to be shown on the dialog's button, {@code null} for the default
+         */
+        public Builder setButtonText(@Nullable String buttonText) {
+            this.buttonText = buttonText;
+            return this;
+        }
+
+        /**
+         * @param buttonTextColor The text color to be used for the dialog's button
+         */
+        public Builder setButtonTextColor(@ColorInt int buttonTextColor) {
+            this.buttonTextColor = buttonTextColor;
+            return this;
+        }
+
+        /**
+         * @param buttonBackgroundColor The background color of the dialog's button
+         */
+        public Builder setButtonBackgroundColor(@ColorInt int buttonBackgroundColor) {
+            this.buttonBackgroundColor = buttonBackgroundColor;
+            return this;
+        }
+
+        /**
+         * @param buttonTransparent Whether the dialog's button should show as transparent.
+         *                          Ignored if a background color is set
+         */
+        public Builder setButtonTransparent(boolean buttonTransparent) {
+            this.buttonTransparent = buttonTransparent;
+            return this;
+        }
+
+        /**
+         * @param previewElevation The elevation of the color view in pixels.
+         *                         Only used on Lollipop and above
+         */
+        public Builder setPreviewElevation(float previewElevation) {
+            this.previewElevation = previewElevation;
+            return this;
+        }
+
+        /**
+         * @param sliderTextColor The color of the values drawn above the SeekBars
+         */
+        public Builder setSliderTextColor(@ColorInt int sliderTextColor) {
+            this.sliderTextColor = sliderTextColor;
+            return this;
+        }
+
+        /**
+         * @param hexTextColor The text color of the HEX code input field
+         */
+        public Builder setHexTextColor(@ColorInt int hexTextColor) {
+            this.hexTextColor = hexTextColor;
+            return this;
+        }
+
+        /**
+         * @param hexTextSize The text size of the HEX code input field, in sp
+         */
+        public Builder setHexTextSize(float hexTextSize) {
+            this.hexTextSize = hexTextSize;
+            return this;
+        }
+
+        public ColorPickerStyle build() {
+            return new ColorPickerStyle(this);
+        }
+    }
+}
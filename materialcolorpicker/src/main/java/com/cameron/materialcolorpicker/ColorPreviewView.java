@@ -0,0 +1,283 @@
+package com.cameron.materialcolorpicker;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.os.Build;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+/**
+ * The big preview area at the top (or left, in landscape) of the dialog. It shows either
+ * the current color or, while the picker is editing a gradient, the gradient along with
+ * a marker for each of its stops.
+ * <p>
+ * Translucent colors and gradients are drawn over a checkerboard, which is at most two
+ * layers: the checkerboard and the color or gradient on top of it.
+ * <p>
+ * The gradient is interpolated into a small bitmap that a single BitmapShader stretches
+ * over the view.
+ */
+class ColorPreviewView extends View {
+
+    // Width of the gradient bitmap, the shader stretches it over the whole view
+    private static final int GRADIENT_WIDTH = 256;
+
+    /**
+     * Notified when the user selects one of the gradient stops. Moving a stop only
+     * changes the shared position array, unless it passes one of its neighbours.
+     */
+    interface OnStopChangeListener {
+        void onStopSelected(int index);
+
+        /**
+         * The dragged stop swapped places with a neighbour and is now at {@code index}.
+         */
+        void onSelectedStopMoved(int index);
+    }
+
+    private Paint fillPaint;
+    private Paint checkerPaint;
+    private Paint markerPaint;
+    private float markerRadius;
+
+    @ColorInt
+    private int color = Color.BLACK;
+
+    // The arrays are shared with the ColorPicker, so the stops are never copied around
+    private int[] stopColors;
+    private float[] stopPositions;
+    private int selectedStop;
+    private boolean dragging;
+
+    // Created once, with the first gradient
+    private int[] gradientPixels;
+    private Bitmap gradientBitmap;
+    private BitmapShader gradientShader;
+    private boolean gradientOpaque;
+    private final Matrix gradientMatrix = new Matrix();
+
+    private OnStopChangeListener stopChangeListener;
+
+    public ColorPreviewView(Context context) {
+        super(context);
+        init();
+    }
+
+    public ColorPreviewView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public ColorPreviewView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        fillPaint = new Paint();
+        checkerPaint = new Paint();
+        checkerPaint.setShader(CheckerboardDrawable.getShader(getContext()));
+        markerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        markerPaint.setStrokeWidth(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                2, getResources().getDisplayMetrics()));
+        markerRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                8, getResources().getDisplayMetrics());
+
+        // The color is drawn in onDraw instead of being the background, so the
+        // elevation shadow of the v21 layouts needs an explicit outline
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            setOutlineProvider(ViewOutlineProvider.BOUNDS);
+        }
+    }
+
+    void setColor(@ColorInt int color) {
+        if (this.color == color) return;
+        this.color = color;
+        if (stopColors == null) invalidate();
+    }
+
+    /**
+     * Switches the view to gradient mode. Passing {@code null} switches back to a solid color.
+     */
+    void setGradient(@Nullable int[] colors, @Nullable float[] positions, int selected) {
+        stopColors = colors;
+        stopPositions = positions;
+        selectedStop = selected;
+        if (colors != null) updateGradient();
+        invalidate();
+    }
+
+    /**
+     * Must be called whenever a color or a position of the shared stop arrays has changed.
+     */
+    void onStopChanged() {
+        updateGradient();
+        invalidate();
+    }
+
+    void setOnStopChangeListener(@Nullable OnStopChangeListener listener) {
+        stopChangeListener = listener;
+    }
+
+    /**
+     * Interpolates the stops into the gradient bitmap.
+     */
+    private void updateGradient() {
+        if (gradientBitmap == null) {
+            gradientPixels = new int[GRADIENT_WIDTH];
+            gradientBitmap = Bitmap.createBitmap(GRADIENT_WIDTH, 1, Bitmap.Config.ARGB_8888);
+            gradientShader = new BitmapShader(gradientBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            gradientShader.setLocalMatrix(gradientMatrix);
+            fillPaint.setShader(gradientShader);
+        }
+
+        int stop = 0;
+        for (int x = 0; x < GRADIENT_WIDTH; x++) {
+            final float position = (x + 0.5f) / GRADIENT_WIDTH;
+            while (stop < stopPositions.length - 1 && stopPositions[stop + 1] < position) stop++;
+            if (position <= stopPositions[0]) {
+                gradientPixels[x] = stopColors[0];
+            } else if (stop == stopPositions.length - 1) {
+                gradientPixels[x] = stopColors[stop];
+            } else {
+                final float length = stopPositions[stop + 1] - stopPositions[stop];
+                gradientPixels[x] = lerp(stopColors[stop], stopColors[stop + 1],
+                        length == 0f ? 1f : (position - stopPositions[stop]) / length);
+            }
+        }
+        gradientBitmap.setPixels(gradientPixels, 0, GRADIENT_WIDTH, 0, 0, GRADIENT_WIDTH, 1);
+        gradientOpaque = isOpaque(stopColors);
+    }
+
+    private static int lerp(int from, int to, float fraction) {
+        return (lerpChannel(from >>> 24, to >>> 24, fraction) << 24)
+                | (lerpChannel((from >> 16) & 0xFF, (to >> 16) & 0xFF, fraction) << 16)
+                | (lerpChannel((from >> 8) & 0xFF, (to >> 8) & 0xFF, fraction) << 8)
+                | lerpChannel(from & 0xFF, to & 0xFF, fraction);
+    }
+
+    private static int lerpChannel(int from, int to, float fraction) {
+        return Math.round(from + (to - from) * fraction);
+    }
+
+    private static boolean isOpaque(int[] colors) {
+        for (int color : colors) {
+            if (Color.alpha(color) != 255) return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        gradientMatrix.setScale((float) w / GRADIENT_WIDTH, 1f);
+        if (gradientShader != null) gradientShader.setLocalMatrix(gradientMatrix);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (stopColors == null) {
+            if (Color.alpha(color) != 255) canvas.drawPaint(checkerPaint);
+            canvas.drawColor(color);
+            return;
+        }
+
+        // Two BitmapShaders can't be combined in a ComposeShader before API 28, so the
+        // checkerboard is a separate layer
+        if (!gradientOpaque) canvas.drawPaint(checkerPaint);
+        canvas.drawRect(0, 0, getWidth(), getHeight(), fillPaint);
+
+        final float cy = getHeight() - markerRadius * 2;
+        for (int i = 0; i < stopColors.length; i++) {
+            final float cx = stopPositions[i] * getWidth();
+            markerPaint.setStyle(Paint.Style.FILL);
+            markerPaint.setColor(stopColors[i] | 0xFF000000);
+            canvas.drawCircle(cx, cy, markerRadius, markerPaint);
+            markerPaint.setStyle(Paint.Style.STROKE);
+            markerPaint.setColor(i == selectedStop ? Color.WHITE : Color.DKGRAY);
+            canvas.drawCircle(cx, cy, i == selectedStop ? markerRadius * 1.25f : markerRadius,
+                    markerPaint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (stopColors == null || getWidth() == 0) return super.onTouchEvent(event);
+
+        final float position = Math.max(0f, Math.min(1f, event.getX() / getWidth()));
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                selectedStop = nearestStop(position);
+                dragging = true;
+                getParent().requestDisallowInterceptTouchEvent(true);
+                invalidate();
+                if (stopChangeListener != null) stopChangeListener.onStopSelected(selectedStop);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (!dragging || stopPositions[selectedStop] == position) return true;
+                stopPositions[selectedStop] = position;
+                final int before = selectedStop;
+                keepStopsSorted();
+                updateGradient();
+                invalidate();
+                if (stopChangeListener != null && before != selectedStop) {
+                    stopChangeListener.onSelectedStopMoved(selectedStop);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                dragging = false;
+                return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    private int nearestStop(float position) {
+        int nearest = 0;
+        float best = Float.MAX_VALUE;
+        for (int i = 0; i < stopPositions.length; i++) {
+            final float distance = Math.abs(stopPositions[i] - position);
+            if (distance < best) {
+                best = distance;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * The interpolation requires the positions to be monotonic, so a stop that is dragged
+     * past its neighbour swaps places with it (and stays selected).
+     */
+    private void keepStopsSorted() {
+        while (selectedStop > 0 && stopPositions[selectedStop - 1] > stopPositions[selectedStop]) {
+            swapStops(selectedStop, selectedStop - 1);
+            selectedStop--;
+        }
+        while (selectedStop < stopPositions.length - 1
+                && stopPositions[selectedStop + 1] < stopPositions[selectedStop]) {
+            swapStops(selectedStop, selectedStop + 1);
+            selectedStop++;
+        }
+    }
+
+    private void swapStops(int a, int b) {
+        final int color = stopColors[a];
+        stopColors[a] = stopColors[b];
+        stopColors[b] = color;
+        final float position = stopPositions[a];
+        stopPositions[a] = stopPositions[b];
+        stopPositions[b] = position;
+    }
+}
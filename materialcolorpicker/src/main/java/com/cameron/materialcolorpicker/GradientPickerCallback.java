@@ -0,0 +1,20 @@
+package com.cameron.materialcolorpicker;
+
+import android.support.annotation.ColorInt;
+
+/**
+ * Callback used when the ColorPicker is editing a gradient instead of a single color.
+ *
+ * @see ColorPicker#setGradient(int[], float[])
+ */
+public interface GradientPickerCallback {
+    /**
+     * Gets called whenever a user chooses a gradient from the ColorPicker, i.e., presses the
+     * "Choose" button while the picker is in gradient mode.
+     *
+     * @param colors    The color of every stop, packed as ARGB ints
+     * @param positions The position of every stop (0 - 1), sorted in ascending order.
+     *                  {@code positions[i]} belongs to {@code colors[i]}
+     */
+    void onGradientChosen(@ColorInt int[] colors, float[] positions);
+}
@@ -0,0 +1,179 @@
+package com.cameron.materialcolorpicker;
+
+import android.support.annotation.ColorInt;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import static com.cameron.materialcolorpicker.ColorFormatHelper.hexDigitValue;
+import static com.cameron.materialcolorpicker.ColorFormatHelper.writeHex;
+
+/**
+ * Converts whole lists of colors to and from the HEX codes shown by the ColorPicker, e.g. for
+ * importing and exporting themes. Colors are written as {@code #AARRGGBB} (or {@code #RRGGBB}
+ * without alpha) separated by a delimiter, in one pass and without a String per color.
+ *
+ * <pre>
+ * StringBuilder theme = HexColorCodec.formatColors(colors, true, ',', new StringBuilder());
+ * int[] parsed = HexColorCodec.parseColors(theme, ',');
+ * </pre>
+ *
+ * @since v2.1.0
+ */
+public final class HexColorCodec {
+
+    // Number of colors formatted at once before they are handed to an Appendable
+    private static final int CHUNK_COLORS = 256;
+
+    private HexColorCodec() {
+    }
+
+    /**
+     * @param count     Number of colors
+     * @param withAlpha Whether the alpha value is written
+     * @return The number of characters {@link #formatColors} writes for that many colors
+     */
+    public static int formattedLength(int count, boolean withAlpha) {
+        return count == 0 ? 0 : count * (withAlpha ? 10 : 8) - 1;
+    }
+
+    /**
+     * Formats colors into a char array.
+     *
+     * @param colors    The colors to format
+     * @param offset    Index of the first color to format
+     * @param count     Number of colors to format
+     * @param withAlpha Whether the alpha value is written ({@code #AARRGGBB}) or not ({@code #RRGGBB})
+     * @param delimiter Written between two colors
+     * @param out       Receives the HEX codes, needs room for
+     *                  {@link #formattedLength(int, boolean)} characters
+     * @param outOffset Position of the first character in {@code out}
+     * @return The number of characters written
+     */
+    public static int formatColors(@ColorInt int[] colors, int offset, int count, boolean withAlpha,
+                                   char delimiter, char[] out, int outOffset) {
+        final int digits = withAlpha ? 8 : 6;
+        int position = outOffset;
+        for (int i = offset; i < offset + count; i++) {
+            if (i > offset) out[position++] = delimiter;
+            out[position++] = '#';
+            writeHex(colors[i], digits, out, position);
+            position += digits;
+        }
+        return position - outOffset;
+    }
+
+    /**
+     * Formats colors and appends them to a StringBuilder.
+     *
+     * @see #formatColors(int[], int, int, boolean, char, char[], int)
+     */
+    public static StringBuilder formatColors(@ColorInt int[] colors, boolean withAlpha,
+                                             char delimiter, StringBuilder out) {
+        out.ensureCapacity(out.length() + formattedLength(colors.length, withAlpha));
+        final char[] chunk = new char[formattedLength(CHUNK_COLORS, withAlpha) + 1];
+        for (int i = 0; i < colors.length; i += CHUNK_COLORS) {
+            if (i > 0) out.append(delimiter);
+            out.append(chunk, 0, formatColors(colors, i, Math.min(CHUNK_COLORS, colors.length - i),
+                    withAlpha, delimiter, chunk, 0));
+        }
+        return out;
+    }
+
+    /**
+     * Formats colors and appends them to any Appendable, such as a Writer. The colors are
+     * formatted in chunks, so the output never has to fit into memory at once.
+     *
+     * @see #formatColors(int[], int, int, boolean, char, char[], int)
+     */
+    public static void formatColors(@ColorInt int[] colors, boolean withAlpha, char delimiter,
+                                    Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            formatColors(colors, withAlpha, delimiter, (StringBuilder) out);
+            return;
+        }
+        final char[] chunk = new char[formattedLength(CHUNK_COLORS, withAlpha) + 1];
+        for (int i = 0; i < colors.length; i += CHUNK_COLORS) {
+            int length = 0;
+            if (i > 0) chunk[length++] = delimiter;
+            length += formatColors(colors, i, Math.min(CHUNK_COLORS, colors.length - i),
+                    withAlpha, delimiter, chunk, length);
+            if (out instanceof Writer) ((Writer) out).write(chunk, 0, length);
+            else out.append(CharBuffer.wrap(chunk, 0, length));
+        }
+    }
+
+    /**
+     * Parses delimited HEX codes in a single pass. Every code may start with {@code #} and must
+     * have 6 ({@code RRGGBB}, parsed as opaque) or 8 ({@code AARRGGBB}) digits, which is the same
+     * format {@code Color.parseColor} accepts for HEX codes. Whitespace around the codes and
+     * a trailing delimiter are ignored.
+     *
+     * @param input     The HEX codes
+     * @param delimiter The character between two codes
+     * @return The parsed colors
+     * @throws ParseException if a code is invalid. {@link ParseException#getErrorOffset()}
+     *                        is the position in {@code input} where the problem was found
+     */
+    @ColorInt
+    public static int[] parseColors(CharSequence input, char delimiter) throws ParseException {
+        return parseColors(input, 0, input.length(), delimiter);
+    }
+
+    /**
+     * Parses delimited HEX codes from a part of a char array.
+     *
+     * @throws ParseException if a code is invalid. {@link ParseException#getErrorOffset()}
+     *                        is the position in {@code input} where the problem was found
+     * @see #parseColors(CharSequence, char)
+     */
+    @ColorInt
+    public static int[] parseColors(char[] input, int offset, int length, char delimiter)
+            throws ParseException {
+        return parseColors(CharBuffer.wrap(input), offset, offset + length, delimiter);
+    }
+
+    private static int[] parseColors(CharSequence input, int start, int end, char delimiter)
+            throws ParseException {
+        // The shortest code and its delimiter take 7 characters
+        int[] colors = new int[Math.max(16, (end - start) / 7 + 1)];
+        int count = 0;
+        int i = start;
+        while (i < end) {
+            // Whitespace before a code, which also skips empty lines if the delimiter is one
+            while (i < end && Character.isWhitespace(input.charAt(i))) i++;
+            if (i == end) break;
+
+            final int codeStart = i;
+            if (input.charAt(i) == '#') i++;
+            int value = 0;
+            int digits = 0;
+            while (i < end) {
+                final int digit = hexDigitValue(input.charAt(i));
+                if (digit < 0) break;
+                if (digits == 8) throw new ParseException("HEX code has more than 8 digits", i);
+                value = (value << 4) | digit;
+                digits++;
+                i++;
+            }
+            while (i < end && input.charAt(i) != delimiter && Character.isWhitespace(input.charAt(i))) {
+                i++;
+            }
+            if (i < end && input.charAt(i) != delimiter) {
+                throw new ParseException("Unexpected character '" + input.charAt(i) + "'", i);
+            }
+            if (digits != 6 && digits != 8) {
+                throw new ParseException("HEX code must have 6 or 8 digits", codeStart);
+            }
+
+            if (count == colors.length) colors = Arrays.copyOf(colors, count * 2);
+            colors[count++] = digits == 6 ? 0xFF000000 | value : value;
+            // Skips the delimiter
+            i++;
+        }
+        return count == colors.length ? colors : Arrays.copyOf(colors, count);
+    }
+}
@@ -101,6 +101,18 @@ class MaterialColorPickerTextSeekBar extends AppCompatSeekBar {
                 getPaddingRight(), getPaddingBottom());
     }
 
+    @ColorInt
+    int getTextColor() {
+        return textColor;
+    }
+
+    void setTextColor(@ColorInt int textColor) {
+        if (this.textColor == textColor) return;
+        this.textColor = textColor;
+        textPaint.setColor(textColor);
+        invalidate();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
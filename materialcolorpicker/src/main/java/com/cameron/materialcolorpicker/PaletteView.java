@@ -0,0 +1,258 @@
+package com.cameron.materialcolorpicker;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.OverScroller;
+
+/**
+ * A scrollable list of the colors of a {@link ColorPalette}, one row per color with a swatch,
+ * the HEX code and the name.
+ * <p>
+ * Rows are never turned into views or objects: every draw only walks the rows that are
+ * currently visible, so the size of the palette doesn't matter. The list can be narrowed down
+ * to the colors whose HEX code starts with a prefix.
+ */
+class PaletteView extends View {
+
+    interface OnPaletteClickListener {
+        void onPaletteClick(@ColorInt int color);
+    }
+
+    private Paint swatchPaint;
+    private Paint hexPaint;
+    private Paint namePaint;
+    private float rowHeight;
+    private float padding;
+    private float hexWidth;
+    // Preallocated buffer the HEX code of a row is formatted into
+    private final char[] hexChars = new char[9];
+
+    private ColorPalette palette;
+    // While filtered, the rows are the positions [first, last) of the sorted palette index
+    private boolean filtered;
+    private int first;
+    private int last;
+    private final int[] range = new int[2];
+
+    private OverScroller scroller;
+    private VelocityTracker velocityTracker;
+    private int touchSlop;
+    private int minFlingVelocity;
+    private int maxFlingVelocity;
+    private float downY;
+    private float lastY;
+    private boolean dragging;
+    private int scrollOffset;
+
+    private OnPaletteClickListener paletteClickListener;
+
+    public PaletteView(Context context) {
+        super(context);
+        init();
+    }
+
+    public PaletteView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public PaletteView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        swatchPaint = new Paint();
+        namePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        namePaint.setColor(Color.BLACK);
+        namePaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                14, getResources().getDisplayMetrics()));
+        hexPaint = new Paint(namePaint);
+        hexPaint.setTypeface(Typeface.MONOSPACE);
+        rowHeight = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                36, getResources().getDisplayMetrics());
+        padding = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                8, getResources().getDisplayMetrics());
+        hexChars[0] = '#';
+        hexWidth = hexPaint.measureText("#FFFFFFFF") + padding;
+
+        scroller = new OverScroller(getContext());
+        final ViewConfiguration configuration = ViewConfiguration.get(getContext());
+        touchSlop = configuration.getScaledTouchSlop();
+        minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    void setPalette(@Nullable ColorPalette palette) {
+        this.palette = palette;
+        filtered = false;
+        scrollTo(0);
+    }
+
+    /**
+     * Only shows the colors whose 8 digit HEX code starts with the given prefix.
+     *
+     * @param prefix The value of the prefix
+     * @param digits The number of HEX digits in the prefix, 0 shows the whole palette
+     */
+    void setFilter(int prefix, int digits) {
+        if (palette == null) return;
+        if (digits == 0) {
+            clearFilter();
+            return;
+        }
+        palette.findPrefix(prefix, digits, range);
+        if (filtered && first == range[0] && last == range[1]) return;
+        filtered = true;
+        first = range[0];
+        last = range[1];
+        scrollTo(0);
+    }
+
+    void clearFilter() {
+        if (!filtered) return;
+        filtered = false;
+        scrollTo(0);
+    }
+
+    void setOnPaletteClickListener(@Nullable OnPaletteClickListener listener) {
+        paletteClickListener = listener;
+    }
+
+    private int rowCount() {
+        if (palette == null) return 0;
+        return filtered ? last - first : palette.size();
+    }
+
+    private int colorIndex(int row) {
+        return filtered ? palette.sortedIndex(first + row) : row;
+    }
+
+    private int maxScroll() {
+        return Math.max(0, (int) Math.ceil(rowCount() * rowHeight) - getHeight());
+    }
+
+    private void scrollTo(int offset) {
+        scrollOffset = Math.max(0, Math.min(maxScroll(), offset));
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        scrollTo(scrollOffset);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        final int rows = rowCount();
+        if (rows == 0) return;
+
+        final int firstVisible = (int) (scrollOffset / rowHeight);
+        final int lastVisible = Math.min(rows - 1, (int) ((scrollOffset + getHeight()) / rowHeight));
+        final float textOffset = (rowHeight - namePaint.ascent() - namePaint.descent()) / 2;
+        final char[] names = palette.nameChars();
+
+        for (int row = firstVisible; row <= lastVisible; row++) {
+            final int index = colorIndex(row);
+            final int color = palette.getColor(index);
+            final float top = row * rowHeight - scrollOffset;
+
+            swatchPaint.setColor(color);
+            canvas.drawRect(padding, top + padding / 2, padding + rowHeight,
+                    top + rowHeight - padding / 2, swatchPaint);
+
+            final int hexLength = formatHex(color);
+            final float textLeft = padding * 2 + rowHeight;
+            canvas.drawText(hexChars, 0, hexLength, textLeft, top + textOffset, hexPaint);
+            canvas.drawText(names, palette.nameStart(index), palette.nameLength(index),
+                    textLeft + hexWidth, top + textOffset, namePaint);
+        }
+    }
+
+    /**
+     * Writes the HEX code of the color into {@link #hexChars}, without the alpha
+     * channel if the color is opaque.
+     *
+     * @return The number of characters written
+     */
+    private int formatHex(int color) {
+        final int digits = Color.alpha(color) == 255 ? 6 : 8;
+        ColorFormatHelper.writeHex(color, digits, hexChars, 1);
+        return digits + 1;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (rowCount() == 0) return super.onTouchEvent(event);
+
+        if (velocityTracker == null) velocityTracker = VelocityTracker.obtain();
+        velocityTracker.addMovement(event);
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                scroller.forceFinished(true);
+                downY = lastY = event.getY();
+                dragging = false;
+                getParent().requestDisallowInterceptTouchEvent(true);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (!dragging && Math.abs(event.getY() - downY) > touchSlop) dragging = true;
+                if (dragging) scrollTo(scrollOffset + (int) (lastY - event.getY()));
+                lastY = event.getY();
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (dragging) {
+                    velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                    final int velocity = (int) -velocityTracker.getYVelocity();
+                    if (Math.abs(velocity) > minFlingVelocity) {
+                        scroller.fling(0, scrollOffset, 0, velocity, 0, 0, 0, maxScroll());
+                        postInvalidateOnAnimation();
+                    }
+                } else {
+                    final int row = (int) ((event.getY() + scrollOffset) / rowHeight);
+                    if (row < rowCount() && paletteClickListener != null) {
+                        paletteClickListener.onPaletteClick(palette.getColor(colorIndex(row)));
+                    }
+                    performClick();
+                }
+                recycleVelocityTracker();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                recycleVelocityTracker();
+                return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    private void recycleVelocityTracker() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(scroller.getCurrY());
+            postInvalidateOnAnimation();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.cameron.materialcolorpicker;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.support.annotation.ColorInt;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * A horizontal row of color swatches, optionally split into groups by a small gap
+ * and labelled. Only the swatches whose color changed are invalidated.
+ */
+class SwatchStripView extends View {
+
+    interface OnSwatchClickListener {
+        void onSwatchClick(@ColorInt int color);
+    }
+
+    private Paint swatchPaint;
+    private Paint checkerPaint;
+    private Paint labelPaint;
+    private float groupGap;
+
+    @ColorInt
+    private int[] colors = new int[0];
+    // For every swatch, the index of the group it belongs to
+    private int[] groupOf = new int[0];
+    private int groupCount = 1;
+    private String[] labels;
+
+    private OnSwatchClickListener swatchClickListener;
+
+    public SwatchStripView(Context context) {
+        super(context);
+        init();
+    }
+
+    public SwatchStripView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public SwatchStripView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        swatchPaint = new Paint();
+        checkerPaint = new Paint();
+        checkerPaint.setShader(CheckerboardDrawable.getShader(getContext()));
+        labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        labelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                12, getResources().getDisplayMetrics()));
+        groupGap = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                4, getResources().getDisplayMetrics());
+    }
+
+    /**
+     * Sets how many swatches the strip shows and how they are grouped.
+     *
+     * @param groupSizes The number of swatches in every group
+     */
+    void setGroups(int[] groupSizes) {
+        int count = 0;
+        for (int size : groupSizes) count += size;
+        colors = new int[count];
+        groupOf = new int[count];
+        for (int group = 0, i = 0; group < groupSizes.length; group++) {
+            for (int j = 0; j < groupSizes[group]; j++) groupOf[i++] = group;
+        }
+        groupCount = groupSizes.length;
+        invalidate();
+    }
+
+    /**
+     * @param labels The text drawn on every swatch, {@code null} for none
+     */
+    void setLabels(@Nullable String[] labels) {
+        this.labels = labels;
+        invalidate();
+    }
+
+    /**
+     * Updates the swatches, invalidating only the ones whose color changed.
+     *
+     * @param newColors The new colors, at least as many as there are swatches
+     */
+    void setColors(@ColorInt int[] newColors) {
+        for (int i = 0; i < colors.length; i++) {
+            if (colors[i] == newColors[i]) continue;
+            colors[i] = newColors[i];
+            invalidate((int) left(i), 0, (int) Math.ceil(right(i)), getHeight());
+        }
+    }
+
+    void setOnSwatchClickListener(@Nullable OnSwatchClickListener listener) {
+        swatchClickListener = listener;
+    }
+
+    private float swatchWidth() {
+        return (getWidth() - groupGap * (groupCount - 1)) / colors.length;
+    }
+
+    private float left(int index) {
+        return index * swatchWidth() + groupOf[index] * groupGap;
+    }
+
+    private float right(int index) {
+        return left(index) + swatchWidth();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        for (int i = 0; i < colors.length; i++) {
+            if (Color.alpha(colors[i]) != 255) {
+                canvas.drawRect(left(i), 0, right(i), getHeight(), checkerPaint);
+            }
+            swatchPaint.setColor(colors[i]);
+            canvas.drawRect(left(i), 0, right(i), getHeight(), swatchPaint);
+
+            if (labels != null && i < labels.length) {
+                // Dark text on light swatches and vice versa. Translucent swatches are
+                // drawn over the light checkerboard, which is close enough to white
+                final int a = Color.alpha(colors[i]);
+                final int r = overWhite(Color.red(colors[i]), a);
+                final int g = overWhite(Color.green(colors[i]), a);
+                final int b = overWhite(Color.blue(colors[i]), a);
+                labelPaint.setColor(r * 299 + g * 587 + b * 114 > 128000 ? Color.BLACK : Color.WHITE);
+                canvas.drawText(labels[i], (left(i) + right(i)) / 2,
+                        (getHeight() - labelPaint.ascent() - labelPaint.descent()) / 2, labelPaint);
+            }
+        }
+    }
+
+    private static int overWhite(int channel, int alpha) {
+        return (channel * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (swatchClickListener == null || colors.length == 0) return super.onTouchEvent(event);
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                return true;
+            case MotionEvent.ACTION_UP:
+                for (int i = 0; i < colors.length; i++) {
+                    if (event.getX() >= left(i) && event.getX() < right(i)) {
+                        swatchClickListener.onSwatchClick(colors[i]);
+                        break;
+                    }
+                }
+                return performClick();
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+}
@@ -0,0 +1,144 @@
+package com.cameron.materialcolorpicker;
+
+import android.graphics.Color;
+import android.graphics.ColorSpace;
+import android.os.Build;
+import android.support.annotation.ColorInt;
+import android.support.annotation.ColorLong;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+
+/**
+ * Converts between the 10 bit channels edited in wide gamut mode and 8 bit sRGB colors.
+ * <p>
+ * Channels are kept as ints ordered alpha, red, green, blue (0 - {@link #CHANNEL_MAX}), mapped
+ * linearly onto the 0 - 1 range of the color space's components.
+ */
+@RequiresApi(api = Build.VERSION_CODES.O)
+final class WideGamutConverter {
+
+    static final int CHANNEL_MAX = 1023;
+
+    private final ColorSpace.Named named;
+    private final ColorSpace colorSpace;
+    private final ColorSpace.Connector toSrgb;
+    private final ColorSpace.Connector fromSrgb;
+    // Red, green and blue while a color is being transformed
+    private final float[] components = new float[3];
+
+    /**
+     * @throws IllegalArgumentException if the color space is not an RGB color space
+     */
+    WideGamutConverter(ColorSpace.Named named) {
+        colorSpace = ColorSpace.get(named);
+        if (colorSpace.getModel() != ColorSpace.Model.RGB) {
+            throw new IllegalArgumentException("Wide gamut mode needs an RGB color space");
+        }
+        this.named = named;
+        toSrgb = ColorSpace.connect(colorSpace);
+        fromSrgb = ColorSpace.connect(ColorSpace.get(ColorSpace.Named.SRGB), colorSpace);
+    }
+
+    /**
+     * Recreates a converter from {@link #getColorSpaceId()}, e.g. for a saved state.
+     *
+     * @return The converter, or {@code null} if the id is not a supported color space
+     */
+    @Nullable
+    static WideGamutConverter fromColorSpaceId(int id) {
+        final ColorSpace.Named[] spaces = ColorSpace.Named.values();
+        if (id < 0 || id >= spaces.length) return null;
+        try {
+            return new WideGamutConverter(spaces[id]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return An id of the color space that can be stored as an int
+     */
+    int getColorSpaceId() {
+        return named.ordinal();
+    }
+
+    /**
+     * Packs the four 10 bit channels into a single long, e.g. for the undo history.
+     */
+    static long packChannels(int[] channels) {
+        return ((long) channels[0] << 30) | ((long) channels[1] << 20)
+                | ((long) channels[2] << 10) | channels[3];
+    }
+
+    static void unpackChannels(long packed, int[] channels) {
+        channels[0] = (int) (packed >> 30) & CHANNEL_MAX;
+        channels[1] = (int) (packed >> 20) & CHANNEL_MAX;
+        channels[2] = (int) (packed >> 10) & CHANNEL_MAX;
+        channels[3] = (int) packed & CHANNEL_MAX;
+    }
+
+    /**
+     * @param channels Alpha, red, green and blue in the color space
+     * @return The closest 8 bit sRGB color, colors outside of sRGB are clamped
+     */
+    @ColorInt
+    int toSrgb(int[] channels) {
+        components[0] = channels[1] / (float) CHANNEL_MAX;
+        components[1] = channels[2] / (float) CHANNEL_MAX;
+        components[2] = channels[3] / (float) CHANNEL_MAX;
+        toSrgb.transform(components);
+        return (Math.round(channels[0] * 255f / CHANNEL_MAX) << 24)
+                | (quantize(components[0], 255) << 16)
+                | (quantize(components[1], 255) << 8)
+                | quantize(components[2], 255);
+    }
+
+    /**
+     * @param color    An 8 bit sRGB color
+     * @param channels Receives alpha, red, green and blue in the color space
+     */
+    void fromSrgb(@ColorInt int color, int[] channels) {
+        components[0] = ((color >> 16) & 0xFF) / 255f;
+        components[1] = ((color >> 8) & 0xFF) / 255f;
+        components[2] = (color & 0xFF) / 255f;
+        fromSrgb.transform(components);
+        channels[0] = Math.round((color >>> 24) * CHANNEL_MAX / 255f);
+        channels[1] = quantize(components[0], CHANNEL_MAX);
+        channels[2] = quantize(components[1], CHANNEL_MAX);
+        channels[3] = quantize(components[2], CHANNEL_MAX);
+    }
+
+    /**
+     * @param channels Alpha, red, green and blue in the color space
+     * @param opaque   Whether the alpha channel is ignored, as for colors without alpha
+     * @return The color packed as a color long in the color space
+     */
+    @ColorLong
+    long pack(int[] channels, boolean opaque) {
+        return Color.pack(
+                channels[1] / (float) CHANNEL_MAX,
+                channels[2] / (float) CHANNEL_MAX,
+                channels[3] / (float) CHANNEL_MAX,
+                opaque ? 1f : channels[0] / (float) CHANNEL_MAX,
+                colorSpace);
+    }
+
+    /**
+     * Converts a color long of any color space into channels of this one. Converting from
+     * another color space creates a connector, so this is not meant to be called per tick.
+     *
+     * @param color    The color to convert
+     * @param channels Receives alpha, red, green and blue in the color space
+     */
+    void unpack(@ColorLong long color, int[] channels) {
+        if (Color.colorSpace(color) != colorSpace) color = Color.convert(color, colorSpace);
+        channels[0] = quantize(Color.alpha(color), CHANNEL_MAX);
+        channels[1] = quantize(Color.red(color), CHANNEL_MAX);
+        channels[2] = quantize(Color.green(color), CHANNEL_MAX);
+        channels[3] = quantize(Color.blue(color), CHANNEL_MAX);
+    }
+
+    private static int quantize(float component, int max) {
+        return Math.round(Math.max(0f, Math.min(1f, component)) * max);
+    }
+}
@@ -0,0 +1,18 @@
+package com.cameron.materialcolorpicker;
+
+import android.support.annotation.ColorLong;
+
+/**
+ * Callback used when the ColorPicker is in wide gamut mode.
+ *
+ * @see ColorPicker#setWideGamut(android.graphics.ColorSpace.Named)
+ */
+public interface WideGamutPickerCallback {
+    /**
+     * Gets called whenever a user chooses a color from the ColorPicker, i.e., presses the
+     * "Choose" button while the picker is in wide gamut mode.
+     *
+     * @param color The color chosen, packed as a color long in the picker's color space
+     */
+    void onColorChosen(@ColorLong long color);
+}
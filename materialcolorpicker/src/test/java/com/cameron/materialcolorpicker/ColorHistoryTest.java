@@ -0,0 +1,157 @@
+package com.cameron.materialcolorpicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColorHistoryTest {
+
+    @Test
+    public void undoAndRedoMoveThroughTheEntries() {
+        final ColorHistory history = new ColorHistory(4);
+        history.push(1);
+        history.push(2);
+        history.push(3);
+
+        assertTrue(history.canUndo());
+        assertFalse(history.canRedo());
+        assertEquals(2, history.undo());
+        assertEquals(1, history.undo());
+        assertFalse(history.canUndo());
+        assertEquals(2, history.redo());
+        assertEquals(3, history.redo());
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    public void pushingTheCurrentColorAgainIsIgnored() {
+        final ColorHistory history = new ColorHistory(4);
+        history.push(1);
+        history.push(1);
+
+        assertEquals(1, history.size());
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void pushAfterUndoDropsTheRedoEntries() {
+        final ColorHistory history = new ColorHistory(4);
+        history.push(1);
+        history.push(2);
+        history.push(3);
+        history.undo();
+        history.undo();
+        history.push(4);
+
+        assertEquals(2, history.size());
+        assertFalse(history.canRedo());
+        assertEquals(4, history.current());
+        assertEquals(1, history.undo());
+    }
+
+    @Test
+    public void fullRingOverwritesTheOldestEntries() {
+        final ColorHistory history = new ColorHistory(3);
+        for (int color = 1; color <= 7; color++) history.push(color);
+
+        assertEquals(3, history.size());
+        assertEquals(2, history.cursor());
+        assertEquals(5, history.get(0));
+        assertEquals(6, history.get(1));
+        assertEquals(7, history.get(2));
+        assertEquals(6, history.undo());
+        assertEquals(5, history.undo());
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void pushAfterUndoOnAWrappedRing() {
+        final ColorHistory history = new ColorHistory(3);
+        for (int color = 1; color <= 5; color++) history.push(color);
+        history.undo();
+        history.push(9);
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.get(0));
+        assertEquals(4, history.get(1));
+        assertEquals(9, history.get(2));
+    }
+
+    @Test
+    public void clearRemovesEveryEntry() {
+        final ColorHistory history = new ColorHistory(3);
+        history.push(1);
+        history.push(2);
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        history.push(3);
+        assertEquals(3, history.current());
+    }
+
+    @Test
+    public void restoreKeepsTheNewestEntriesThatFit() {
+        final ColorHistory history = new ColorHistory(3);
+        // Two ints of unrelated state before the entries
+        history.restore(new int[]{-1, -1, 1, 2, 3, 4, 5}, 2, 5, 3);
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.get(0));
+        assertEquals(5, history.get(2));
+        // The cursor still points at the same entry
+        assertEquals(1, history.cursor());
+        assertEquals(4, history.current());
+        assertTrue(history.canRedo());
+    }
+
+    @Test
+    public void restoreClampsACursorOfADroppedEntry() {
+        final ColorHistory history = new ColorHistory(2);
+        history.restore(new int[]{1, 2, 3, 4}, 0, 4, 0);
+
+        assertEquals(0, history.cursor());
+        assertEquals(3, history.current());
+    }
+
+    @Test
+    public void entriesWithOtherWideChannelsAreKept() {
+        final ColorHistory history = new ColorHistory(4);
+        // Two wide colors that round to the same 8 bit color
+        history.push(1, 100L);
+        history.push(1, 101L);
+        history.push(1, 101L);
+
+        assertEquals(2, history.size());
+        assertEquals(101L, history.currentChannels());
+        history.undo();
+        assertEquals(100L, history.currentChannels());
+        history.redo();
+        assertEquals(101L, history.currentChannels());
+    }
+
+    @Test
+    public void colorsWithoutWideChannels() {
+        final ColorHistory history = new ColorHistory(2);
+        history.push(1);
+        history.push(2, 200L);
+        history.push(3);
+
+        assertEquals(ColorHistory.NO_CHANNELS, history.currentChannels());
+        assertEquals(200L, history.getChannels(0));
+    }
+
+    @Test
+    public void restoreChannelsSkipsTheDroppedEntries() {
+        final ColorHistory history = new ColorHistory(2);
+        final long newest = (1023L << 30) | 1023L;
+        history.restore(new int[]{1, 2, 3}, 0, 3, 2);
+        assertEquals(ColorHistory.NO_CHANNELS, history.currentChannels());
+
+        history.restoreChannels(new int[]{0, 10, 0, 20, (int) (newest >> 32), (int) newest}, 0, 3);
+        assertEquals(20L, history.getChannels(0));
+        assertEquals(newest, history.getChannels(1));
+        assertEquals(newest, history.currentChannels());
+    }
+}
@@ -0,0 +1,158 @@
+package com.cameron.materialcolorpicker;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+public class ColorPaletteTest {
+
+    private static ColorPalette load(String text) throws IOException {
+        return ColorPalette.load(new ByteArrayInputStream(text.getBytes("UTF-8")));
+    }
+
+    /**
+     * Returns a single byte per read, so the parser is fed chunks that end in the middle of
+     * HEX codes and names.
+     */
+    private static InputStream trickle(String text) throws IOException {
+        return new ByteArrayInputStream(text.getBytes("UTF-8")) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    private static void assertRange(ColorPalette palette, int prefix, int digits, int... colors) {
+        final int[] range = new int[2];
+        palette.findPrefix(prefix, digits, range);
+        final int[] found = new int[range[1] - range[0]];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = palette.getColor(palette.sortedIndex(range[0] + i));
+        }
+        assertArrayEquals(colors, found);
+    }
+
+    @Test
+    public void parsesCodesAndNames() throws IOException {
+        final ColorPalette palette = load("#F44336 Red\n4CAF50, Green\n802196F3;Translucent blue\n"
+                + "\n  #000000\tBlack  \nFFFFFF");
+
+        assertEquals(5, palette.size());
+        assertEquals(0xFFF44336, palette.getColor(0));
+        assertEquals("Red", palette.getName(0));
+        assertEquals(0xFF4CAF50, palette.getColor(1));
+        assertEquals("Green", palette.getName(1));
+        // 8 digits are ARGB, 6 digits are opaque
+        assertEquals(0x802196F3, palette.getColor(2));
+        assertEquals("Translucent blue", palette.getName(2));
+        assertEquals(0xFF000000, palette.getColor(3));
+        assertEquals("Black", palette.getName(3));
+        assertEquals(0xFFFFFFFF, palette.getColor(4));
+        assertEquals("", palette.getName(4));
+    }
+
+    @Test
+    public void parsesCrlfLineEndings() throws IOException {
+        final ColorPalette palette = load("#F44336 Red\r\n\r\n#4CAF50 Green\r\n");
+
+        assertEquals(2, palette.size());
+        assertEquals("Red", palette.getName(0));
+        assertEquals(0xFF4CAF50, palette.getColor(1));
+        assertEquals("Green", palette.getName(1));
+    }
+
+    @Test
+    public void chunksMayEndInTheMiddleOfALine() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(String.format("#%08X Color %d\n", i * 0x010203 | 0x80000000, i));
+        }
+
+        final ColorPalette whole = load(text.toString());
+        final ColorPalette trickled = ColorPalette.load(trickle(text.toString()));
+
+        assertEquals(3000, whole.size());
+        assertEquals(whole.size(), trickled.size());
+        for (int i = 0; i < whole.size(); i++) {
+            assertEquals(whole.getColor(i), trickled.getColor(i));
+            assertEquals(whole.getName(i), trickled.getName(i));
+        }
+        assertEquals("Color 2999", trickled.getName(2999));
+    }
+
+    @Test
+    public void reportsTheLineOfAnInvalidCode() throws IOException {
+        try {
+            load("#F44336 Red\n#4CAF5 Green\n");
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("line 2"));
+        }
+        try {
+            load("#F44336 Red\r\n\r\n#4CAF5G Green\r\n");
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("line 3"));
+        }
+    }
+
+    @Test
+    public void tooManyDigitsAreInvalid() throws IOException {
+        try {
+            load("#FF4CAF500 Green");
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("line 1"));
+        }
+    }
+
+    @Test
+    public void sortedIndexOrdersByUnsignedHexCode() {
+        // Colors above 0x7FFFFFFF are negative ints but sort after the positive ones
+        final int[] colors = {0xFF000000, 0x00000001, 0x80000000, 0x7FFFFFFF, 0x7F000000};
+        final ColorPalette palette = ColorPalette.fromArrays(colors, null);
+
+        final int[] sorted = new int[colors.length];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = palette.getColor(palette.sortedIndex(i));
+        assertArrayEquals(new int[]{0x00000001, 0x7F000000, 0x7FFFFFFF, 0x80000000, 0xFF000000}, sorted);
+        assertEquals("", palette.getName(0));
+    }
+
+    @Test
+    public void findPrefixAroundTheSignBit() {
+        final ColorPalette palette = ColorPalette.fromArrays(new int[]{
+                0x7EFFFFFF, 0x7F000000, 0x7FFFFFFF, 0x80000000, 0x80FFFFFF, 0x81000000
+        }, null);
+
+        assertRange(palette, 0x7, 1, 0x7EFFFFFF, 0x7F000000, 0x7FFFFFFF);
+        assertRange(palette, 0x8, 1, 0x80000000, 0x80FFFFFF, 0x81000000);
+        assertRange(palette, 0x7F, 2, 0x7F000000, 0x7FFFFFFF);
+        assertRange(palette, 0x80, 2, 0x80000000, 0x80FFFFFF);
+        assertRange(palette, 0x80000000, 8, 0x80000000);
+        assertRange(palette, 0x9, 1);
+    }
+
+    @Test
+    public void findPrefixEdgesOfTheRange() {
+        final ColorPalette palette = ColorPalette.fromArrays(new int[]{
+                0xFFFFFFFF, 0x00000000, 0xFFF44336, 0xFF4CAF50, 0xFFF44336
+        }, new String[]{"White", "Transparent", "Red", "Green", "Red again"});
+
+        assertRange(palette, 0, 0, 0x00000000, 0xFF4CAF50, 0xFFF44336, 0xFFF44336, 0xFFFFFFFF);
+        assertRange(palette, 0xF, 1, 0xFF4CAF50, 0xFFF44336, 0xFFF44336, 0xFFFFFFFF);
+        assertRange(palette, 0xFFF4, 4, 0xFFF44336, 0xFFF44336);
+        assertRange(palette, 0xFFFFFFFF, 8, 0xFFFFFFFF);
+        assertRange(palette, 0x0, 8, 0x00000000);
+        assertRange(palette, 0x1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromArraysNeedsANameForEveryColor() {
+        ColorPalette.fromArrays(new int[]{0xFF000000, 0xFFFFFFFF}, new String[]{"Black"});
+    }
+}
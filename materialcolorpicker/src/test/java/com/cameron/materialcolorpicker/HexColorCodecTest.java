@@ -0,0 +1,142 @@
+package com.cameron.materialcolorpicker;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+public class HexColorCodecTest {
+
+    private static void assertParseError(String input, char delimiter, int offset) {
+        try {
+            HexColorCodec.parseColors(input, delimiter);
+            fail("Expected a ParseException for " + input);
+        } catch (ParseException e) {
+            assertEquals(offset, e.getErrorOffset());
+        }
+    }
+
+    /**
+     * Enough colors for more than two chunks, with every alpha and digit showing up.
+     */
+    private static int[] manyColors() {
+        final int[] colors = new int[600];
+        for (int i = 0; i < colors.length; i++) colors[i] = i * 0x0709F1D3;
+        return colors;
+    }
+
+    @Test
+    public void parsesSixAndEightDigits() throws ParseException {
+        assertArrayEquals(new int[]{0xFFF44336, 0x802196F3, 0xFF4CAF50},
+                HexColorCodec.parseColors("#F44336,#802196f3,4CAF50", ','));
+    }
+
+    @Test
+    public void ignoresWhitespaceAndATrailingDelimiter() throws ParseException {
+        assertArrayEquals(new int[]{0xFFF44336, 0xFF4CAF50},
+                HexColorCodec.parseColors(" #F44336 ,\t#4CAF50 ,", ','));
+        assertArrayEquals(new int[0], HexColorCodec.parseColors("", ','));
+    }
+
+    @Test
+    public void parsesLinesWithCrlf() throws ParseException {
+        assertArrayEquals(new int[]{0xFFF44336, 0xFF4CAF50, 0x00000000},
+                HexColorCodec.parseColors("#F44336\r\n\r\n#4CAF50\r\n#00000000\r\n", '\n'));
+    }
+
+    @Test
+    public void rejectsEmptyFields() {
+        assertParseError("#F44336,,#4CAF50", ',', 8);
+        assertParseError("#F44336,#,#4CAF50", ',', 8);
+    }
+
+    @Test
+    public void rejectsInvalidCodes() {
+        assertParseError("#F4433", ',', 0);
+        assertParseError("#F44336,#4CAF5", ',', 8);
+        assertParseError("#F44336,#4CAF50G", ',', 15);
+        assertParseError("#F44336 #4CAF50", ',', 8);
+        // The ninth digit is reported
+        assertParseError("#FF4CAF500", ',', 9);
+    }
+
+    @Test
+    public void parsesAPartOfACharArray() throws ParseException {
+        final char[] input = "#FFFFFF;#F44336;#4CAF50;#ZZ".toCharArray();
+
+        assertArrayEquals(new int[]{0xFFF44336, 0xFF4CAF50},
+                HexColorCodec.parseColors(input, 8, 15, ';'));
+        try {
+            HexColorCodec.parseColors(input, 16, input.length - 16, ';');
+            fail("Expected a ParseException");
+        } catch (ParseException e) {
+            // Offsets are positions in the whole array
+            assertEquals(25, e.getErrorOffset());
+        }
+    }
+
+    @Test
+    public void formatsLikeStringFormat() {
+        final int[] colors = {0xFFF44336, 0x0000000F, 0x802196F3};
+
+        assertEquals("#FFF44336,#0000000F,#802196F3",
+                HexColorCodec.formatColors(colors, true, ',', new StringBuilder()).toString());
+        assertEquals("#F44336 #00000F #2196F3",
+                HexColorCodec.formatColors(colors, false, ' ', new StringBuilder()).toString());
+
+        final char[] out = new char[2 + HexColorCodec.formattedLength(2, false)];
+        assertEquals(15, HexColorCodec.formatColors(colors, 1, 2, false, ';', out, 2));
+        assertEquals("#00000F;#2196F3", new String(out, 2, 15));
+    }
+
+    @Test
+    public void everyOutputWritesTheSameText() throws IOException {
+        final int[] colors = manyColors();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < colors.length; i++) {
+            if (i > 0) expected.append('\n');
+            expected.append(String.format("#%08X", colors[i]));
+        }
+
+        final StringBuilder builder = HexColorCodec.formatColors(colors, true, '\n', new StringBuilder());
+        final StringWriter writer = new StringWriter();
+        HexColorCodec.formatColors(colors, true, '\n', writer);
+        final StringBuilder appended = new StringBuilder();
+        // Neither a Writer nor a StringBuilder, so the chunks are appended as CharSequences
+        HexColorCodec.formatColors(colors, true, '\n', new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                appended.append(csq);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                appended.append(csq, start, end);
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                appended.append(c);
+                return this;
+            }
+        });
+
+        assertEquals(expected.toString(), builder.toString());
+        assertEquals(expected.toString(), writer.toString());
+        assertEquals(expected.toString(), appended.toString());
+        assertEquals(HexColorCodec.formattedLength(colors.length, true), builder.length());
+    }
+
+    @Test
+    public void parsesWhatItFormats() throws ParseException {
+        final int[] colors = manyColors();
+        final String text = HexColorCodec.formatColors(colors, true, ',', new StringBuilder()).toString();
+
+        assertArrayEquals(colors, HexColorCodec.parseColors(text, ','));
+    }
+}
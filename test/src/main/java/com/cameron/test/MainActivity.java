@@ -16,6 +16,7 @@ import com.cameron.materialcolorpicker.ColorPickerCallback;
 public class MainActivity extends AppCompatActivity implements ColorPickerCallback {
 
     private final String COLOR_VALUE = "colorValue";
+    private final String PICKER_STATE = "pickerState";
     private ColorPicker colorPicker;
     private View colorView;
     private int currentColor;
@@ -48,9 +49,13 @@ public class MainActivity extends AppCompatActivity implements ColorPickerCallba
                 // this last configuration is technically unnecessary
                 .setCallback(this);
 
-        // The dialog will be reset on orientation change. This is an
-        // example of how to retain the color value in such a case
-        colorPicker.setColor(savedInstanceState == null ? defaultColor : currentColor);
+        // The dialog will be reset on orientation change. The picker can save
+        // and restore its own state (color, alpha mode and options) in such a case
+        if (savedInstanceState != null && savedInstanceState.getBundle(PICKER_STATE) != null) {
+            colorPicker.onRestoreInstanceState(savedInstanceState.getBundle(PICKER_STATE));
+        } else {
+            colorPicker.setColor(defaultColor);
+        }
         colorView.setBackgroundColor(savedInstanceState == null ? defaultColor : currentColor);
 
         openColorDialog.setOnClickListener(new View.OnClickListener() {
@@ -65,6 +70,7 @@ public class MainActivity extends AppCompatActivity implements ColorPickerCallba
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
         outState.putInt(COLOR_VALUE, currentColor);
+        outState.putBundle(PICKER_STATE, colorPicker.onSaveInstanceState());
     }
 
     /**